@@ -0,0 +1,82 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base.benchmarks;
+
+import com.aoapps.dao.base.AbstractTable;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link AbstractTable#get(java.lang.Comparable)} once cached: hits
+ * for rows that exist and negative hits for rows that do not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetBenchmark {
+
+  @Param({"GLOBAL", "ROW", "TABLE"})
+  public TableKind kind;
+
+  @Param({"1000", "100000"})
+  public int size;
+
+  private AbstractTable<Integer, SyntheticRow> table;
+
+  @Setup
+  public void setup() throws SQLException {
+    table = kind.newTable(new SyntheticModel(), size);
+    // Caches every row and every absence, one at a time for the row cache
+    for (int i = 0; i < size; i++) {
+      int key = SyntheticRows.getKey(i);
+      table.get(key);
+      table.getOptional(key + 1);
+    }
+  }
+
+  @Benchmark
+  public SyntheticRow getHit(KeyCursor cursor) throws SQLException {
+    return table.get(cursor.nextKey(size));
+  }
+
+  @Benchmark
+  public Optional<SyntheticRow> getNegativeHit(KeyCursor cursor) throws SQLException {
+    return table.getOptional(cursor.nextMissingKey(size));
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Visits the rows of a synthetic table in a pseudo-random order, separately
+ * for each thread, so lookups are not served by a single hot key.
+ */
+@State(Scope.Thread)
+public class KeyCursor {
+
+  private int seed = System.identityHashCode(this) | 1;
+
+  /**
+   * Gets the index of the next row.
+   */
+  int nextIndex(int size) {
+    // xorshift
+    int x = seed;
+    x ^= x << 13;
+    x ^= x >>> 17;
+    x ^= x << 5;
+    seed = x;
+    return (x & Integer.MAX_VALUE) % size;
+  }
+
+  /**
+   * Gets the key of the next row, which exists.
+   */
+  int nextKey(int size) {
+    return SyntheticRows.getKey(nextIndex(size));
+  }
+
+  /**
+   * Gets a key between rows, which does not exist.
+   */
+  int nextMissingKey(int size) {
+    return nextKey(size) + 1;
+  }
+}
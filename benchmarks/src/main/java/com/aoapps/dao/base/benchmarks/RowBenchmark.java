@@ -0,0 +1,83 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base.benchmarks;
+
+import com.aoapps.dao.base.AbstractRow;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link AbstractRow#equals(java.lang.Object)} and {@link AbstractRow#hashCode()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowBenchmark {
+
+  private SyntheticRow row;
+  private SyntheticRow rowEqual;
+  private SyntheticRow rowDifferent;
+
+  @Setup
+  public void setup() {
+    SyntheticModel model = new SyntheticModel();
+    SyntheticGlobalCacheTable table = new SyntheticGlobalCacheTable(model, 0);
+    row = new SyntheticRow(model, table, 1000);
+    rowEqual = new SyntheticRow(model, table, 1000);
+    rowDifferent = new SyntheticRow(model, table, 1002);
+  }
+
+  @Benchmark
+  @SuppressWarnings("EqualsWithItself")
+  public boolean equalsSame() {
+    return row.equals(row);
+  }
+
+  @Benchmark
+  public boolean equalsEqual() {
+    return row.equals(rowEqual);
+  }
+
+  @Benchmark
+  public boolean equalsDifferent() {
+    return row.equals(rowDifferent);
+  }
+
+  @Benchmark
+  public int hashCodeRow() {
+    return row.hashCode();
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base.benchmarks;
+
+import com.aoapps.dao.base.RowCacheTable;
+import com.aoapps.dbc.NoRowException;
+import java.util.Set;
+
+/**
+ * A {@link RowCacheTable} of synthetic rows, shared by all threads.
+ */
+final class SyntheticRowCacheTable extends RowCacheTable<Integer, SyntheticRow> {
+
+  private final SyntheticModel model;
+  private final int size;
+  private final int maxCachedRows;
+
+  /**
+   * @param  maxCachedRows  the maximum number of cached rows, or {@link Integer#MAX_VALUE} for unbounded
+   */
+  SyntheticRowCacheTable(SyntheticModel model, int size, int maxCachedRows) {
+    super(Integer.class, SyntheticRow.class, model);
+    this.model = model;
+    this.size = size;
+    this.maxCachedRows = maxCachedRows;
+  }
+
+  @Override
+  protected boolean isSharedCache() {
+    return true;
+  }
+
+  @Override
+  protected int getMaxCachedRows() {
+    return maxCachedRows;
+  }
+
+  @Override
+  protected SyntheticRow getNoCache(Integer canonicalKey) throws NoRowException {
+    return SyntheticRows.getRow(model, this, size, canonicalKey);
+  }
+
+  @Override
+  protected Set<? extends SyntheticRow> getRowsNoCache() {
+    return SyntheticRows.getRows(model, this, size);
+  }
+}
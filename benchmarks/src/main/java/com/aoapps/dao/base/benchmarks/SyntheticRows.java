@@ -0,0 +1,71 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base.benchmarks;
+
+import com.aoapps.dao.Table;
+import com.aoapps.dbc.NoRowException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Generates the rows of synthetic tables in memory.  Rows exist for the even
+ * keys from zero, so odd keys within the range do not exist.
+ */
+final class SyntheticRows {
+
+  /** Make no instances. */
+  private SyntheticRows() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Gets the key of the row at the given index.
+   */
+  static int getKey(int index) {
+    return index * 2;
+  }
+
+  /**
+   * Creates all rows of a table.
+   */
+  static Set<SyntheticRow> getRows(SyntheticModel model, Table<Integer, SyntheticRow> table, int size) {
+    Set<SyntheticRow> rows = new HashSet<>(size * 4 / 3 + 1);
+    for (int i = 0; i < size; i++) {
+      rows.add(new SyntheticRow(model, table, getKey(i)));
+    }
+    return rows;
+  }
+
+  /**
+   * Creates a single row of a table.
+   *
+   * @throws  NoRowException  when the key is odd or out of range
+   */
+  static SyntheticRow getRow(SyntheticModel model, Table<Integer, SyntheticRow> table, int size, int key) throws NoRowException {
+    if (key < 0 || key >= getKey(size) || (key & 1) != 0) {
+      throw new NoRowException(table.getName() + " not found: " + key);
+    }
+    return new SyntheticRow(model, table, key);
+  }
+}
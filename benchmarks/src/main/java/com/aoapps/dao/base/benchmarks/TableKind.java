@@ -0,0 +1,52 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base.benchmarks;
+
+import com.aoapps.dao.base.AbstractTable;
+
+/**
+ * The kinds of tables benchmarked, each shared by all threads.
+ */
+public enum TableKind {
+  GLOBAL {
+    @Override
+    AbstractTable<Integer, SyntheticRow> newTable(SyntheticModel model, int size) {
+      return new SyntheticGlobalCacheTable(model, size);
+    }
+  },
+  ROW {
+    @Override
+    AbstractTable<Integer, SyntheticRow> newTable(SyntheticModel model, int size) {
+      return new SyntheticRowCacheTable(model, size, Integer.MAX_VALUE);
+    }
+  },
+  TABLE {
+    @Override
+    AbstractTable<Integer, SyntheticRow> newTable(SyntheticModel model, int size) {
+      return new SyntheticTableCacheTable(model, size);
+    }
+  };
+
+  abstract AbstractTable<Integer, SyntheticRow> newTable(SyntheticModel model, int size);
+}
@@ -0,0 +1,98 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base.benchmarks;
+
+import com.aoapps.dao.base.Tuple2Impl;
+import com.aoapps.dao.base.Tuple3Impl;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures comparing and hashing {@link com.aoapps.dao.base.AbstractTuple}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TupleBenchmark {
+
+  private Tuple2Impl<String, Integer> tuple2;
+  private Tuple2Impl<String, Integer> tuple2Equal;
+  private Tuple2Impl<String, Integer> tuple2Different;
+  private Tuple3Impl<String, String, Integer> tuple3;
+  private Tuple3Impl<String, String, Integer> tuple3Equal;
+
+  @Setup
+  public void setup() {
+    Comparator<? super String> comparator = new SyntheticModel().getComparator();
+    // Distinct String instances, so comparisons are not by identity
+    tuple2 = new Tuple2Impl<>(comparator, new String("example.com"), 12345);
+    tuple2Equal = new Tuple2Impl<>(comparator, new String("example.com"), 12345);
+    tuple2Different = new Tuple2Impl<>(comparator, new String("example.com"), 12346);
+    tuple3 = new Tuple3Impl<>(comparator, new String("example.com"), new String("www"), 80);
+    tuple3Equal = new Tuple3Impl<>(comparator, new String("example.com"), new String("www"), 80);
+  }
+
+  @Benchmark
+  public int compareTuple2Equal() {
+    return tuple2.compareTo(tuple2Equal);
+  }
+
+  @Benchmark
+  public int compareTuple2Different() {
+    return tuple2.compareTo(tuple2Different);
+  }
+
+  @Benchmark
+  public int compareTuple3Equal() {
+    return tuple3.compareTo(tuple3Equal);
+  }
+
+  @Benchmark
+  public boolean equalsTuple2() {
+    return tuple2.equals(tuple2Equal);
+  }
+
+  @Benchmark
+  public int hashCodeTuple2() {
+    return tuple2.hashCode();
+  }
+
+  @Benchmark
+  public int hashCodeTuple3() {
+    return tuple3.hashCode();
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2011, 2013, 2015, 2016, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2011, 2013, 2015, 2016, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,19 +24,43 @@
 package com.aoapps.dao.base;
 
 import com.aoapps.dao.Model;
+import com.aoapps.dao.Table;
 import com.aoapps.lang.text.SmartComparator;
 import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
  * A base implementation of <code>DaoDatabase</code>.
  */
 public abstract class AbstractModel implements Model {
 
+  private static final Logger logger = Logger.getLogger(AbstractModel.class.getName());
+
+  /**
+   * The domain of the names of all MBeans registered by {@link #registerMBeans(javax.management.MBeanServer, java.lang.String)}.
+   */
+  public static final String MBEAN_DOMAIN = "com.aoapps.dao.base";
+
   /**
    * A single Comparator for shared use.
    */
   private static final Comparator<? super String> comparator = new SmartComparator();
 
+  /**
+   * All tables added to this model, in the order added.
+   */
+  private final CopyOnWriteArrayList<AbstractTable<?, ?>> tables = new CopyOnWriteArrayList<>();
+
+  private final List<CacheListener> cacheListeners = new CopyOnWriteArrayList<>();
+
   /**
    * By default, sorts using {@link SmartComparator} in the system locale.
    */
@@ -44,4 +68,179 @@ public abstract class AbstractModel implements Model {
   public Comparator<? super String> getComparator() {
     return comparator;
   }
+
+  /**
+   * Gets the function computing a reusable sort key for a String, where sort
+   * keys compare in the same order as {@link #getComparator()}.  Tables keyed by
+   * String or by {@link AbstractTuple}, whose rows are sorted by key, may opt in
+   * by returning {@link AbstractTable#getSortKeyByKey()} from
+   * {@link AbstractTable#getRowSortKey()}, sorting by computing one sort key per
+   * row instead of comparing by the comparator O(n log n) times.
+   *
+   * <p>Only use with tuples created with {@link #getComparator()}.</p>
+   *
+   * <p>This default implementation returns {@code null}, sorting by {@link #getComparator()}, since
+   * {@link SmartComparator} has no sort key.  A model with a {@link java.text.Collator} as its
+   * comparator may return {@code collator::getCollationKey}.</p>
+   */
+  public Function<? super String, ? extends Comparable<?>> getSortKeyFunction() {
+    return null;
+  }
+
+  /**
+   * Adds a table to the statistics and MBeans of this model.  Models add their
+   * tables once constructed, typically at the end of their own constructor.
+   *
+   * @return  {@code true} when added, or {@code false} when already added
+   *
+   * @throws  IllegalArgumentException  when the table belongs to another model
+   *
+   * @see  #getCacheStats()
+   * @see  #registerMBeans(javax.management.MBeanServer, java.lang.String)
+   */
+  protected boolean addTable(AbstractTable<?, ?> table) {
+    if (table.getModel() != this) {
+      throw new IllegalArgumentException("Table belongs to another model: " + table.getName());
+    }
+    return tables.addIfAbsent(table);
+  }
+
+  /**
+   * Removes a table from the statistics of this model.  Any MBean already
+   * registered for the table remains until {@link #unregisterMBeans(javax.management.MBeanServer, java.lang.String)}.
+   *
+   * @return  {@code true} when the table was removed
+   */
+  protected boolean removeTable(AbstractTable<?, ?> table) {
+    return tables.remove(table);
+  }
+
+  /**
+   * Gets the statistics of the caches of all tables of this model.
+   *
+   * @return  a new snapshot of the counts, summed over all {@linkplain #addTable(com.aoapps.dao.base.AbstractTable) added tables}
+   */
+  public CacheStats getCacheStats() {
+    CacheStats total = new CacheStats();
+    for (AbstractTable<?, ?> table : tables) {
+      table.getCacheStats().addTo(total);
+    }
+    return total;
+  }
+
+  /**
+   * Adds a listener notified of the loads and invalidations of the caches of all tables of this model.
+   */
+  public void addCacheListener(CacheListener listener) {
+    cacheListeners.add(listener);
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @return  {@code true} when the listener was removed
+   */
+  public boolean removeCacheListener(CacheListener listener) {
+    return cacheListeners.remove(listener);
+  }
+
+  void fireRowsLoaded(Table<?, ?> table, int rows, long nanos) {
+    for (CacheListener listener : cacheListeners) {
+      try {
+        listener.rowsLoaded(table, rows, nanos);
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Cache listener failed", e);
+      }
+    }
+  }
+
+  void fireRowsPatched(Table<?, ?> table, int rows, long nanos) {
+    for (CacheListener listener : cacheListeners) {
+      try {
+        listener.rowsPatched(table, rows, nanos);
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Cache listener failed", e);
+      }
+    }
+  }
+
+  void fireLoadFailed(Table<?, ?> table, long nanos, Throwable cause) {
+    for (CacheListener listener : cacheListeners) {
+      try {
+        listener.loadFailed(table, nanos, cause);
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Cache listener failed", e);
+      }
+    }
+  }
+
+  void fireTableUpdated(Table<?, ?> table) {
+    for (CacheListener listener : cacheListeners) {
+      try {
+        listener.tableUpdated(table);
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Cache listener failed", e);
+      }
+    }
+  }
+
+  /**
+   * Exposes cache statistics through JMX without making the table or model
+   * itself an MBean.
+   */
+  private static final class CacheStatsBean implements CacheStatsMXBean {
+
+    private final Supplier<CacheStats> cacheStats;
+
+    private CacheStatsBean(Supplier<CacheStats> cacheStats) {
+      this.cacheStats = cacheStats;
+    }
+
+    @Override
+    public CacheStats getCacheStats() {
+      return cacheStats.get();
+    }
+  }
+
+  private static ObjectName getModelObjectName(String name) throws JMException {
+    return new ObjectName(MBEAN_DOMAIN + ":type=Model,name=" + ObjectName.quote(name));
+  }
+
+  private static ObjectName getTableObjectName(String name, Table<?, ?> table) throws JMException {
+    return new ObjectName(MBEAN_DOMAIN + ":type=Table,model=" + ObjectName.quote(name) + ",name=" + ObjectName.quote(table.getName()));
+  }
+
+  /**
+   * Registers a {@link CacheStatsMXBean} for this model and for each table
+   * {@linkplain #addTable(com.aoapps.dao.base.AbstractTable) added} so far.
+   * The model is registered as <code>com.aoapps.dao.base:type=Model,name="<var>name</var>"</code>
+   * and each table as <code>com.aoapps.dao.base:type=Table,model="<var>name</var>",name="<var>table</var>"</code>.
+   *
+   * @param  name  the name of this model, unique within the server
+   *
+   * @see  java.lang.management.ManagementFactory#getPlatformMBeanServer()
+   */
+  public void registerMBeans(MBeanServer server, String name) throws JMException {
+    server.registerMBean(new CacheStatsBean(this::getCacheStats), getModelObjectName(name));
+    for (AbstractTable<?, ?> table : tables) {
+      server.registerMBean(new CacheStatsBean(table::getCacheStats), getTableObjectName(name, table));
+    }
+  }
+
+  /**
+   * Unregisters the MBeans registered by {@link #registerMBeans(javax.management.MBeanServer, java.lang.String)},
+   * including those of tables since removed.
+   */
+  public void unregisterMBeans(MBeanServer server, String name) throws JMException {
+    ObjectName tablePattern = new ObjectName(MBEAN_DOMAIN + ":type=Table,model=" + ObjectName.quote(name) + ",*");
+    for (ObjectName objectName : server.queryNames(tablePattern, null)) {
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+    }
+    ObjectName objectName = getModelObjectName(name);
+    if (server.isRegistered(objectName)) {
+      server.unregisterMBean(objectName);
+    }
+  }
 }
@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2011, 2013, 2015, 2016, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2011, 2013, 2015, 2016, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -37,6 +37,19 @@ public abstract class AbstractRow<
   private final Model model;
   private final Class<R> clazz;
 
+  /**
+   * The canonical key, once computed when {@linkplain #isImmutable() immutable}.
+   * Racy single-check: may be computed by more than one thread, always to an equal value.
+   */
+  private K canonicalKey;
+
+  /**
+   * The hash code, once computed when {@linkplain #isImmutable() immutable}.
+   * Racy single-check, as in {@link String#hashCode()}.
+   */
+  private int hash;
+  private boolean hashIsZero;
+
   protected AbstractRow(
       Model model,
       Class<R> clazz
@@ -53,19 +66,64 @@ public abstract class AbstractRow<
     return getKey().toString();
   }
 
+  /**
+   * Is this row immutable?  When immutable, the canonical key and hash code
+   * are computed once then reused by {@link #equals(java.lang.Object)} and
+   * {@link #hashCode()}.  The key, its canonical form, and the table must never
+   * change, and keys must be safe to share between threads without synchronization.
+   *
+   * <p>Must consistently return the same value for the lifetime of this row.</p>
+   *
+   * <p>This default implementation returns {@code false}, computing upon each call.</p>
+   */
+  protected boolean isImmutable() {
+    return false;
+  }
+
   /**
    * The default hashCode is based on the key value.
    */
   @Override
   public int hashCode() {
-    return getKey().hashCode();
+    if (!isImmutable()) {
+      return getKey().hashCode();
+    }
+    int h = hash;
+    if (h == 0 && !hashIsZero) {
+      h = getKey().hashCode();
+      if (h == 0) {
+        hashIsZero = true;
+      } else {
+        hash = h;
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Gets the canonical key, computed once when {@linkplain #isImmutable() immutable}.
+   */
+  private K getCanonicalKey() {
+    if (!isImmutable()) {
+      return getTable().canonicalize(getKey());
+    }
+    K ck = canonicalKey;
+    if (ck == null) {
+      ck = getTable().canonicalize(getKey());
+      canonicalKey = ck;
+    }
+    return ck;
   }
 
   /**
    * By default equality is based on same model, compatible class, and equal canonical key objects.
+   * Within the same model, rows with the same key object are equal without canonicalization.
    */
   @Override
   public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
     if (!(o instanceof AbstractRow<?, ?>)) {
       return false;
     }
@@ -76,9 +134,10 @@ public abstract class AbstractRow<
     if (model != other.model) {
       return false;
     }
-    K canonicalKey1 = getTable().canonicalize(getKey());
-    K canonicalKey2 = other.getTable().canonicalize(other.getKey());
-    return canonicalKey1.equals(canonicalKey2);
+    if (getKey() == other.getKey()) {
+      return true;
+    }
+    return getCanonicalKey().equals(other.getCanonicalKey());
   }
 
   /**
@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2011, 2012, 2013, 2015, 2016, 2020, 2021, 2022, 2023  AO Industries, Inc.
+ * Copyright (C) 2011, 2012, 2013, 2015, 2016, 2020, 2021, 2022, 2023, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,12 +29,28 @@ import com.aoapps.dao.Table;
 import com.aoapps.dbc.NoRowException;
 import com.aoapps.lang.exception.WrappedException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Base for {@link Table} implementations.
@@ -48,6 +64,14 @@ public abstract class AbstractTable<
   private final Class<R> rowClass;
   private final Model model;
 
+  final CacheStats cacheStats = new CacheStats();
+
+  /**
+   * Compares keys in the same order as rows are sorted by {@link AbstractRow#compareTo(com.aoapps.dao.base.AbstractRow)},
+   * or {@code null} for natural ordering.
+   */
+  private final Comparator<? super K> keyComparator;
+
   class TableMap implements Map<K, R> {
 
     @Override
@@ -70,15 +94,7 @@ public abstract class AbstractTable<
     public boolean containsValue(Object value) {
       if (value != null && rowClass.isInstance(value)) {
         try {
-          // TODO: getOptional
-          R row = AbstractTable.this.get(rowClass.cast(value).getKey());
-          if (row == null) {
-            throw new AssertionError();
-          }
-          return true;
-        } catch (NoRowException err) {
-          // TODO: getOptional
-          return false;
+          return getOptional(rowClass.cast(value).getKey()).isPresent();
         } catch (SQLException err) {
           throw new WrappedException(err);
         }
@@ -91,15 +107,7 @@ public abstract class AbstractTable<
     public R get(Object key) {
       if (key != null && keyClass.isInstance(key)) {
         try {
-          // TODO: getOptional
-          R row = AbstractTable.this.get(keyClass.cast(key));
-          if (row == null) {
-            throw new AssertionError("NoRowException should have been thrown");
-          }
-          return row;
-        } catch (NoRowException err) {
-          // TODO: getOptional
-          return null;
+          return getOptional(keyClass.cast(key)).orElse(null);
         } catch (SQLException err) {
           throw new WrappedException(err);
         }
@@ -130,7 +138,7 @@ public abstract class AbstractTable<
 
     @Override
     public Set<K> keySet() {
-      throw new UnsupportedOperationException("TODO: Not supported yet.");
+      return getSortedRowMapWrapped().keySet();
     }
 
     @Override
@@ -145,58 +153,169 @@ public abstract class AbstractTable<
 
     @Override
     public Set<Map.Entry<K, R>> entrySet() {
-      throw new UnsupportedOperationException("TODO: Not supported yet.");
+      return getSortedRowMapWrapped().entrySet();
     }
   }
 
-  class TableSortedMap extends TableMap implements SortedMap<K, R> {
+  /**
+   * A sorted view of the table.  Range views, key sets, and entry sets are
+   * backed by the rows sorted at the time the view is created.
+   */
+  class TableSortedMap extends TableMap implements NavigableMap<K, R> {
     @Override
     public Comparator<? super K> comparator() {
-      return null;
+      return keyComparator;
     }
 
     @Override
-    public SortedMap<K, R> subMap(K fromKey, K toKey) {
-      throw new UnsupportedOperationException("TODO: Not supported yet.");
+    public NavigableMap<K, R> subMap(K fromKey, K toKey) {
+      return getSortedRowMapWrapped().subMap(fromKey, toKey);
     }
 
     @Override
-    public SortedMap<K, R> headMap(K toKey) {
-      throw new UnsupportedOperationException("TODO: Not supported yet.");
+    public NavigableMap<K, R> headMap(K toKey) {
+      return getSortedRowMapWrapped().headMap(toKey);
     }
 
     @Override
-    public SortedMap<K, R> tailMap(K fromKey) {
-      throw new UnsupportedOperationException("TODO: Not supported yet.");
+    public NavigableMap<K, R> tailMap(K fromKey) {
+      return getSortedRowMapWrapped().tailMap(fromKey);
     }
 
     @Override
     public K firstKey() throws NoSuchElementException {
-      try {
-        return getRows().first().getKey();
-      } catch (SQLException err) {
-        throw new WrappedException(err);
-      }
+      return getSortedRowMapWrapped().firstKey();
     }
 
     @Override
-    public K lastKey() {
-      try {
-        return getRows().last().getKey();
-      } catch (SQLException err) {
-        throw new WrappedException(err);
-      }
+    public K lastKey() throws NoSuchElementException {
+      return getSortedRowMapWrapped().lastKey();
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+      return getSortedRowMapWrapped().keySet();
+    }
+
+    @Override
+    public Map.Entry<K, R> lowerEntry(K key) {
+      return getSortedRowMapWrapped().lowerEntry(key);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+      return getSortedRowMapWrapped().lowerKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, R> floorEntry(K key) {
+      return getSortedRowMapWrapped().floorEntry(key);
+    }
+
+    @Override
+    public K floorKey(K key) {
+      return getSortedRowMapWrapped().floorKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, R> ceilingEntry(K key) {
+      return getSortedRowMapWrapped().ceilingEntry(key);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+      return getSortedRowMapWrapped().ceilingKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, R> higherEntry(K key) {
+      return getSortedRowMapWrapped().higherEntry(key);
+    }
+
+    @Override
+    public K higherKey(K key) {
+      return getSortedRowMapWrapped().higherKey(key);
+    }
+
+    @Override
+    public Map.Entry<K, R> firstEntry() {
+      return getSortedRowMapWrapped().firstEntry();
+    }
+
+    @Override
+    public Map.Entry<K, R> lastEntry() {
+      return getSortedRowMapWrapped().lastEntry();
+    }
+
+    @Override
+    public Map.Entry<K, R> pollFirstEntry() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map.Entry<K, R> pollLastEntry() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NavigableMap<K, R> descendingMap() {
+      return getSortedRowMapWrapped().descendingMap();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+      return getSortedRowMapWrapped().navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+      return getSortedRowMapWrapped().descendingKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, R> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+      return getSortedRowMapWrapped().subMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, R> headMap(K toKey, boolean inclusive) {
+      return getSortedRowMapWrapped().headMap(toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, R> tailMap(K fromKey, boolean inclusive) {
+      return getSortedRowMapWrapped().tailMap(fromKey, inclusive);
     }
   }
 
   protected final Map<K, R> map = new TableMap();
 
-  protected final SortedMap<K, R> sortedMap = new TableSortedMap();
+  private final NavigableMap<K, R> navigableMap = new TableSortedMap();
+
+  protected final SortedMap<K, R> sortedMap = navigableMap;
+
+  /**
+   * Single-flight keys of the asynchronous loads that are not for a specific row,
+   * distinct from any key of a row.
+   */
+  private static final Object ALL_ROWS = new Object();
+  private static final Object REFRESH = new Object();
+
+  private final AsyncLoader asyncLoader = new AsyncLoader();
 
   protected AbstractTable(Class<K> keyClass, Class<R> rowClass, Model model) {
     this.keyClass = keyClass;
     this.rowClass = rowClass;
     this.model = model;
+    if (keyClass == String.class) {
+      this.keyComparator = (key1, key2) -> {
+        String s1 = key1.toString();
+        String s2 = key2.toString();
+        return s1.equals(s2) ? 0 : model.getComparator().compare(s1, s2);
+      };
+    } else {
+      this.keyComparator = null;
+    }
   }
 
   @Override
@@ -204,6 +323,107 @@ public abstract class AbstractTable<
     return model;
   }
 
+  /**
+   * Gets the statistics of the caches of this table, combined for all scopes.
+   * Tables without caches count nothing.
+   *
+   * @see  AbstractModel#addTable(com.aoapps.dao.base.AbstractTable)
+   */
+  public CacheStats getCacheStats() {
+    return cacheStats;
+  }
+
+  /**
+   * Counts the invalidation then notifies any {@linkplain AbstractModel#addCacheListener(com.aoapps.dao.base.CacheListener) cache listeners}.
+   * Subclasses with caches must invalidate them before calling this implementation,
+   * so that listeners only see the table after its caches have been invalidated.
+   */
+  @Override
+  public void tableUpdated() {
+    Table.super.tableUpdated();
+    // Loads in progress may be from before the update
+    asyncLoader.clear();
+    cacheStats.invalidations.increment();
+    if (model instanceof AbstractModel) {
+      ((AbstractModel) model).fireTableUpdated(this);
+    }
+  }
+
+  /**
+   * Called when only the rows of the given keys have changed, which allows
+   * caches to be updated for those rows instead of discarding all rows.
+   * A key may be given in more than one collection, such as when a row is
+   * inserted then deleted before the change is reported.
+   *
+   * <p>This default implementation calls {@link #tableUpdated()}.</p>
+   *
+   * @param  inserted  the keys of the rows inserted
+   * @param  updated   the keys of the rows updated
+   * @param  deleted   the keys of the rows deleted
+   */
+  public void rowsChanged(
+      Collection<? extends K> inserted,
+      Collection<? extends K> updated,
+      Collection<? extends K> deleted
+  ) throws SQLException {
+    tableUpdated();
+  }
+
+  /**
+   * Loads all rows by the given query, counting the load in {@linkplain #getCacheStats() the statistics}
+   * and notifying any {@linkplain AbstractModel#addCacheListener(com.aoapps.dao.base.CacheListener) cache listeners}.
+   *
+   * @return  the unmodifiable rows
+   */
+  final Set<? extends R> loadRows(SharedCache.Loader<? extends Set<? extends R>> query) throws SQLException {
+    return Collections.unmodifiableSet(timeLoad(query, Set::size));
+  }
+
+  /**
+   * Performs a load of all rows by the given query, counting the load in {@linkplain #getCacheStats() the statistics}
+   * and notifying any {@linkplain AbstractModel#addCacheListener(com.aoapps.dao.base.CacheListener) cache listeners}.
+   *
+   * @param  rowCount  gets the number of rows loaded from the result of the query
+   *
+   * @return  the result of the query
+   */
+  final <T> T timeLoad(SharedCache.Loader<? extends T> query, ToIntFunction<? super T> rowCount) throws SQLException {
+    long startNanos = System.nanoTime();
+    T result;
+    try {
+      result = query.load();
+    } catch (SQLException | RuntimeException e) {
+      cacheStats.loadFailures.increment();
+      if (model instanceof AbstractModel) {
+        ((AbstractModel) model).fireLoadFailed(this, System.nanoTime() - startNanos, e);
+      }
+      throw e;
+    }
+    long nanos = System.nanoTime() - startNanos;
+    int rows = rowCount.applyAsInt(result);
+    cacheStats.recordLoad(rows, nanos);
+    if (model instanceof AbstractModel) {
+      ((AbstractModel) model).fireRowsLoaded(this, rows, nanos);
+    }
+    return result;
+  }
+
+  /**
+   * Counts a lookup in an index of all rows as a hit or negative hit.
+   *
+   * @param  row  the row or {@code null} when does not exist
+   *
+   * @return  the row
+   */
+  final R countLookup(R row) {
+    if (row == null) {
+      cacheStats.negativeHits.increment();
+    } else {
+      cacheStats.hits.increment();
+    }
+    return row;
+  }
+
   @Override
   @SuppressWarnings("ReturnOfCollectionOrArrayField")
   public Map<K, ? extends R> getMap() {
@@ -215,4 +435,330 @@ public abstract class AbstractTable<
   public SortedMap<K, ? extends R> getSortedMap() {
     return sortedMap;
   }
+
+  /**
+   * Splits all rows in their natural ordering, as in {@link #getRows()}.
+   * The rows of caching tables are split evenly for parallel traversal.
+   *
+   * @throws  WrappedException  when unable to get the rows
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Spliterator<R> spliterator() throws WrappedException {
+    try {
+      return (Spliterator<R>) getRows().spliterator();
+    } catch (SQLException err) {
+      throw new WrappedException(err);
+    }
+  }
+
+  /**
+   * Streams all rows in their natural ordering, as in {@link #getRows()}.
+   * The rows are obtained when called, so the stream traverses the rows as of
+   * this call without copying them, even when the table is updated before the
+   * stream is consumed.
+   */
+  @SuppressWarnings("unchecked")
+  public Stream<R> stream() throws SQLException {
+    return StreamSupport.stream((Spliterator<R>) getRows().spliterator(), false);
+  }
+
+  /**
+   * Streams all rows in their natural ordering, in parallel.
+   *
+   * @see  #stream()
+   */
+  @SuppressWarnings("unchecked")
+  public Stream<R> parallelStream() throws SQLException {
+    return StreamSupport.stream((Spliterator<R>) getRows().spliterator(), true);
+  }
+
+  /**
+   * Gets the same map as {@link #getSortedMap()}, as a {@link NavigableMap}.
+   */
+  @SuppressWarnings("ReturnOfCollectionOrArrayField")
+  public NavigableMap<K, ? extends R> getNavigableMap() {
+    return navigableMap;
+  }
+
+  Class<R> getRowClass() {
+    return rowClass;
+  }
+
+  /**
+   * Compares keys in the same order as {@link AbstractRow} sorts rows by default.
+   *
+   * @return  the comparator or {@code null} for natural ordering
+   */
+  Comparator<? super K> getKeyComparator() {
+    return keyComparator;
+  }
+
+  /**
+   * Gets all rows sorted and indexed by key, backing the range views of
+   * {@link #getSortedMap()}.
+   *
+   * <p>This default implementation indexes {@link #getRows()} upon each call.
+   * Caching tables return the index cached along with their sorted rows.</p>
+   */
+  RowArrayMap<K, R> getSortedRowMap() throws SQLException {
+    return RowArrayMap.of(getRows(), keyComparator);
+  }
+
+  /**
+   * Indexes rows by canonical key.
+   *
+   * <p>This default implementation indexes {@link Integer} and {@link Short} keys
+   * in a small contiguous range by direct address, otherwise in a hash map.</p>
+   *
+   * @param  parallelPool  the pool to index within, or {@code null} to index on the current thread
+   *
+   * @throws  SQLException  when any canonical key is duplicated
+   */
+  RowIndex<K, R> newRowIndex(Collection<? extends R> rows, ForkJoinPool parallelPool) throws SQLException {
+    if (keyClass == Integer.class || keyClass == Short.class) {
+      RowIndex<K, R> dense = DenseRowIndex.of(this, rows);
+      if (dense != null) {
+        return dense;
+      }
+    }
+    return RowIndex.ofHash(this, rows, parallelPool);
+  }
+
+  /**
+   * Gets the function computing the sort key of each row when sorting.  Sort
+   * keys must compare in the same order as the rows themselves.
+   *
+   * <p>This default implementation returns {@code null}, sorting by the rows directly.
+   * Tables whose rows are sorted by key only, as in {@link AbstractRow#compareTo(com.aoapps.dao.base.AbstractRow)},
+   * may return {@link #getSortKeyByKey()}.</p>
+   *
+   * @return  the function or {@code null} to sort by the rows directly
+   */
+  protected Function<Object, ? extends Comparable<?>> getRowSortKey() {
+    return null;
+  }
+
+  /**
+   * Gets a function computing the sort key of each row from its key, using
+   * {@link AbstractModel#getSortKeyFunction()} for String columns.  Only
+   * compares in the same order as rows sorted by key.
+   *
+   * @return  the function or {@code null} when the model has no sort key function
+   *          or the rows are not keyed by String or by {@link AbstractTuple}
+   */
+  protected final Function<Object, ? extends Comparable<?>> getSortKeyByKey() {
+    if (model instanceof AbstractModel) {
+      Function<? super String, ? extends Comparable<?>> stringSortKey = ((AbstractModel) model).getSortKeyFunction();
+      if (stringSortKey != null) {
+        return SortKeys.forRows(keyClass, stringSortKey);
+      }
+    }
+    return null;
+  }
+
+  private RowArrayMap<K, R> getSortedRowMapWrapped() {
+    try {
+      return getSortedRowMap();
+    } catch (SQLException err) {
+      throw new WrappedException(err);
+    }
+  }
+
+  /**
+   * Gets the row for the given key, if exists.  Unlike {@link #get(java.lang.Comparable)},
+   * a row that does not exist is not an exception.
+   *
+   * <p>This default implementation calls {@link #get(java.lang.Comparable)},
+   * converting {@link NoRowException} to {@link Optional#empty()}.  Subclasses
+   * should override this to avoid the exception.</p>
+   */
+  public Optional<R> getOptional(K key) throws SQLException {
+    try {
+      return Optional.of(get(key));
+    } catch (NoRowException err) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Gets the rows for any number of keys.  Keys that do not exist are not
+   * included in the results.
+   *
+   * <p>This default implementation calls {@link #getOptional(java.lang.Comparable)} for each key.</p>
+   *
+   * @return  the rows found, keyed by the given keys, in the order of the given keys
+   */
+  public Map<K, R> getAll(Iterable<? extends K> keys) throws SQLException {
+    Map<K, R> results = new LinkedHashMap<>();
+    for (K key : keys) {
+      if (!results.containsKey(key)) {
+        Optional<R> row = getOptional(key);
+        if (row.isPresent()) {
+          results.put(key, row.get());
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Gets the executor that performs the queries and loads of the asynchronous methods,
+   * such as {@link #getAsync(java.lang.Comparable)}.  Since queries block, this should
+   * typically be a pool dedicated to database access.
+   *
+   * <p>When caches are held per {@link CacheScope}, which must not be used by multiple threads
+   * concurrently, the executor is not used.  The queries and loads are instead performed
+   * by the calling thread, within its own scope, and the returned future is already complete.</p>
+   *
+   * <p>This default implementation returns {@link ForkJoinPool#commonPool()}.</p>
+   */
+  protected Executor getAsyncExecutor() {
+    return ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Are rows cached per {@link CacheScope}?  When cached per-scope, the asynchronous methods
+   * are performed by the calling thread instead of {@linkplain #getAsyncExecutor() the async executor}.
+   *
+   * <p>This default implementation returns {@code false}.</p>
+   */
+  boolean isCacheScoped() {
+    return false;
+  }
+
+  /**
+   * Loads by {@linkplain #getAsyncExecutor() the async executor}, joining any concurrent
+   * load for the same key, or by the calling thread when {@linkplain #isCacheScoped() cached per-scope}.
+   */
+  private <V> CompletableFuture<V> loadAsync(Object key, SharedCache.Loader<? extends V> loader) {
+    if (isCacheScoped()) {
+      try {
+        return CompletableFuture.completedFuture(loader.load());
+      } catch (SQLException | RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+    return asyncLoader.load(key, loader, getAsyncExecutor());
+  }
+
+  /**
+   * Gets a row from the cache, without querying.  Lookups are not counted in
+   * {@linkplain #getCacheStats() the statistics}.
+   *
+   * <p>This default implementation returns {@code null}, since nothing is cached.</p>
+   *
+   * @return  the row, {@link Optional#empty()} when known to not exist, or {@code null} when not cached
+   */
+  Optional<R> getCachedOptional(K canonicalKey) {
+    return null;
+  }
+
+  /**
+   * Gets all rows from the cache, without querying.
+   *
+   * <p>This default implementation returns {@code null}, since nothing is cached.</p>
+   *
+   * @return  the rows or {@code null} when not cached
+   */
+  SortedSet<? extends R> getCachedRows() {
+    return null;
+  }
+
+  /**
+   * Gets all rows, waiting for any reload in progress instead of serving any previous rows.
+   *
+   * <p>This default implementation calls {@link #getRows()}.</p>
+   */
+  SortedSet<? extends R> getCurrentRows() throws SQLException {
+    return getRows();
+  }
+
+  /**
+   * Gets the row for the given key asynchronously, completing exceptionally with
+   * {@link NoRowException} when not found.
+   *
+   * @see  #getOptionalAsync(java.lang.Comparable)
+   */
+  public CompletableFuture<R> getAsync(K key) {
+    return getOptionalAsync(key).thenCompose(row -> row.isPresent()
+        ? CompletableFuture.completedFuture(row.get())
+        : CompletableFuture.failedFuture(new NoRowException(getName() + " not found: " + key)));
+  }
+
+  /**
+   * Gets the row for the given key asynchronously, if exists.  When cached, the
+   * returned future is already complete, without using another thread.  Otherwise,
+   * {@link #getOptional(java.lang.Comparable)} is called by {@linkplain #getAsyncExecutor() the async executor},
+   * joining any concurrent request for the same key.
+   */
+  public CompletableFuture<Optional<R>> getOptionalAsync(K key) {
+    K canonicalKey = canonicalize(key);
+    Optional<R> cached = getCachedOptional(canonicalKey);
+    if (cached != null) {
+      countLookup(cached.orElse(null));
+      return CompletableFuture.completedFuture(cached);
+    }
+    return loadAsync(canonicalKey, () -> getOptional(key));
+  }
+
+  /**
+   * Gets the rows for any number of keys asynchronously.  When all are cached, the
+   * returned future is already complete, without using another thread.  Otherwise,
+   * {@link #getAll(java.lang.Iterable)} is called by {@linkplain #getAsyncExecutor() the async executor}.
+   *
+   * @return  the future of the rows found, keyed by the given keys, in the order of the given keys
+   *
+   * @see  #getAll(java.lang.Iterable)
+   */
+  public CompletableFuture<Map<K, R>> getAllAsync(Iterable<? extends K> keys) {
+    List<K> keyList = new ArrayList<>();
+    Map<K, R> results = new LinkedHashMap<>();
+    boolean allCached = true;
+    for (K key : keys) {
+      keyList.add(key);
+      if (allCached && !results.containsKey(key)) {
+        Optional<R> cached = getCachedOptional(canonicalize(key));
+        if (cached == null) {
+          allCached = false;
+        } else {
+          cached.ifPresent(row -> results.put(key, row));
+        }
+      }
+    }
+    if (allCached) {
+      for (K key : keyList) {
+        countLookup(results.get(key));
+      }
+      return CompletableFuture.completedFuture(results);
+    }
+    return loadAsync(keyList, () -> getAll(keyList));
+  }
+
+  /**
+   * Gets all rows asynchronously.  When cached, the returned future is already complete,
+   * without using another thread.  Otherwise, {@link #getRows()} is called by
+   * {@linkplain #getAsyncExecutor() the async executor}, joining any concurrent request.
+   *
+   * @see  #getRows()
+   */
+  public CompletableFuture<SortedSet<? extends R>> getRowsAsync() {
+    SortedSet<? extends R> cached = getCachedRows();
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    return loadAsync(ALL_ROWS, this::getRows);
+  }
+
+  /**
+   * Discards the cached rows, as by {@link #tableUpdated()}, then reloads all rows
+   * by {@linkplain #getAsyncExecutor() the async executor}.  Unlike {@link #getRowsAsync()},
+   * the returned future does not complete with any previous rows still being served.
+   *
+   * @return  the future completed once all rows have been reloaded
+   */
+  public CompletableFuture<Void> refreshAsync() {
+    tableUpdated();
+    return this.<SortedSet<? extends R>>loadAsync(REFRESH, this::getCurrentRows).thenApply(rows -> null);
+  }
 }
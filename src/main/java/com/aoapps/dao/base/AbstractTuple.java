@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2013, 2014, 2015, 2016, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2013, 2014, 2015, 2016, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -24,8 +24,8 @@
 package com.aoapps.dao.base;
 
 import com.aoapps.dao.Tuple;
-import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Objects;
 
 /**
  * Allows sets of columns to be used as multi-column keys.
@@ -38,6 +38,12 @@ public abstract class AbstractTuple<
 
   private final Comparator<? super String> comparator;
 
+  /**
+   * The hash code, once computed.  Racy single-check, as in {@link String#hashCode()}.
+   */
+  private int hash;
+  private boolean hashIsZero;
+
   protected AbstractTuple(Comparator<? super String> comparator) {
     this.comparator = comparator;
   }
@@ -45,16 +51,39 @@ public abstract class AbstractTuple<
   @Override
   public abstract Comparable<?>[] getColumns();
 
+  /**
+   * Gets the number of columns, without allocating.  Used along with
+   * {@link #getColumn(int)} by {@link #equals(java.lang.Object)}, {@link #hashCode()},
+   * and {@link #compareTo(com.aoapps.dao.base.AbstractTuple)}.
+   *
+   * <p>This default implementation calls {@link #getColumns()}.  Subclasses
+   * should override this to avoid creating the array.</p>
+   */
+  protected int getArity() {
+    return getColumns().length;
+  }
+
+  /**
+   * Gets a single column, without allocating.
+   *
+   * <p>This default implementation calls {@link #getColumns()}.  Subclasses
+   * should override this to avoid creating the array.</p>
+   *
+   * @throws  IndexOutOfBoundsException  when {@code index} is not within {@link #getArity()}
+   */
+  protected Comparable<?> getColumn(int index) throws IndexOutOfBoundsException {
+    return getColumns()[index];
+  }
+
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append('(');
-    Comparable<?>[] columns = getColumns();
-    for (int i = 0, len = columns.length; i < len; i++) {
+    for (int i = 0, len = getArity(); i < len; i++) {
       if (i > 0) {
         sb.append(',');
       }
-      sb.append(columns[i]);
+      sb.append(getColumn(i));
     }
     sb.append(')');
     return sb.toString();
@@ -62,31 +91,57 @@ public abstract class AbstractTuple<
 
   @Override
   public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
     if (!(obj instanceof AbstractTuple<?>)) {
       return false;
     }
     AbstractTuple<?> other = (AbstractTuple<?>) obj;
-    return Arrays.equals(getColumns(), other.getColumns());
+    int len = getArity();
+    if (len != other.getArity()) {
+      return false;
+    }
+    for (int i = 0; i < len; i++) {
+      if (!Objects.equals(getColumn(i), other.getColumn(i))) {
+        return false;
+      }
+    }
+    return true;
   }
 
+  /**
+   * The hash code is the same as {@link java.util.Arrays#hashCode(java.lang.Object[])}
+   * of {@link #getColumns()}.  Tuples are immutable, so it is computed once.
+   */
   @Override
   public int hashCode() {
-    return Arrays.hashCode(getColumns());
+    int h = hash;
+    if (h == 0 && !hashIsZero) {
+      h = 1;
+      for (int i = 0, len = getArity(); i < len; i++) {
+        h = 31 * h + Objects.hashCode(getColumn(i));
+      }
+      if (h == 0) {
+        hashIsZero = true;
+      } else {
+        hash = h;
+      }
+    }
+    return h;
   }
 
   @Override
   public int compareTo(T o) {
-    Comparable<?>[] columns1 = getColumns();
-    Comparable<?>[] columns2 = o.getColumns();
-    int len1 = columns1.length;
-    int len2 = columns2.length;
+    int len1 = getArity();
+    int len2 = o.getArity();
     int minLen = Math.min(len1, len2);
     for (int i = 0; i < minLen; i++) {
       // Is it always possible to treat as Comparable<Object>?
       @SuppressWarnings("unchecked")
-      Comparable<Object> column1 = (Comparable<Object>) columns1[i];
+      Comparable<Object> column1 = (Comparable<Object>) getColumn(i);
 
-      Comparable<?> column2 = columns2[i];
+      Comparable<?> column2 = o.getColumn(i);
       int diff;
       if (
           column1 != null
@@ -0,0 +1,91 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs loads on an executor, joining concurrent requests for the same key.
+ * <ol>
+ *   <li>The first request for a key starts a load on the executor</li>
+ *   <li>Requests for the same key join the load in progress</li>
+ *   <li>Once complete, the next request for the key starts a new load</li>
+ * </ol>
+ * Loads are performed in the scope of the executing thread, so must only use caches
+ * that are safe to share between threads.
+ */
+final class AsyncLoader {
+
+  private final ConcurrentMap<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Starts a load on the given executor or joins the load in progress for the same key.
+   *
+   * @return  a new future completed with the loaded value, or exceptionally with any failure,
+   *          including {@link RejectedExecutionException} when the executor does not accept the load.
+   *          Each request is given its own copy of the load, so cancelling it does not affect other requests.
+   */
+  @SuppressWarnings("unchecked")
+  <V> CompletableFuture<V> load(Object key, SharedCache.Loader<? extends V> loader, Executor executor) {
+    Objects.requireNonNull(key);
+    CompletableFuture<V> future = (CompletableFuture<V>) inFlight.get(key);
+    if (future != null) {
+      return future.copy();
+    }
+    CompletableFuture<V> newFuture = new CompletableFuture<>();
+    future = (CompletableFuture<V>) inFlight.putIfAbsent(key, newFuture);
+    if (future != null) {
+      return future.copy();
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          V value = loader.load();
+          inFlight.remove(key, newFuture);
+          newFuture.complete(value);
+        } catch (Throwable t) {
+          inFlight.remove(key, newFuture);
+          newFuture.completeExceptionally(t);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(key, newFuture);
+      newFuture.completeExceptionally(e);
+    }
+    return newFuture.copy();
+  }
+
+  /**
+   * Stops joining the loads in progress, so the next request for each key starts a new load.
+   * The loads in progress still complete their own futures.
+   */
+  void clear() {
+    inFlight.clear();
+  }
+}
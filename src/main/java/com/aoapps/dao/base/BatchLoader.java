@@ -0,0 +1,175 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent single-row queries into batches.
+ * <ol>
+ *   <li>The first thread to request a row opens a new batch and becomes its leader</li>
+ *   <li>Other threads add their keys to the open batch, or join the request for the same key</li>
+ *   <li>Once the window has elapsed or the batch is full, the leader queries all keys at once</li>
+ *   <li>Each thread receives its own row</li>
+ * </ol>
+ * No additional threads are used: the leader performs the query on its own thread.
+ */
+final class BatchLoader<K, R> {
+
+  /**
+   * Queries any number of rows at once.
+   */
+  @FunctionalInterface
+  interface BulkLoader<K, R> {
+    Map<K, ? extends R> load(Collection<K> canonicalKeys) throws SQLException;
+  }
+
+  /**
+   * A set of keys to be queried together.
+   */
+  private static final class Batch<K, R> {
+    private final long openedNanos = System.nanoTime();
+    private final Map<K, CompletableFuture<R>> futures = new LinkedHashMap<>();
+    private boolean closed;
+  }
+
+  private final BulkLoader<K, R> bulkLoader;
+  private final CacheStats stats;
+
+  /**
+   * The batch currently accepting keys.
+   */
+  private Batch<K, R> open;
+
+  BatchLoader(BulkLoader<K, R> bulkLoader, CacheStats stats) {
+    this.bulkLoader = bulkLoader;
+    this.stats = stats;
+  }
+
+  /**
+   * Queries a single row as part of a batch.
+   *
+   * @param  windowNanos   the maximum nanoseconds a batch waits for additional keys
+   * @param  maxBatchSize  the number of keys that closes a batch before the window has elapsed
+   *
+   * @return  the row or {@code null} when not found
+   */
+  R load(K canonicalKey, long windowNanos, int maxBatchSize) throws SQLException {
+    final long startNanos = System.nanoTime();
+    final Batch<K, R> batch;
+    final CompletableFuture<R> future;
+    final boolean leader;
+    synchronized (this) {
+      Batch<K, R> b = open;
+      if (b == null) {
+        b = new Batch<>();
+        open = b;
+        leader = true;
+      } else {
+        leader = false;
+      }
+      batch = b;
+      CompletableFuture<R> f = b.futures.get(canonicalKey);
+      if (f == null) {
+        f = new CompletableFuture<>();
+        b.futures.put(canonicalKey, f);
+        if (b.futures.size() >= maxBatchSize) {
+          close(b);
+          notifyAll();
+        }
+      }
+      future = f;
+    }
+    try {
+      if (leader) {
+        awaitClose(batch, windowNanos);
+        execute(batch);
+      }
+      return SharedCache.join(future);
+    } finally {
+      stats.batchWaitNanos.add(System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Closes a batch to additional keys.  Must be holding the lock.
+   */
+  private void close(Batch<K, R> batch) {
+    assert Thread.holdsLock(this);
+    batch.closed = true;
+    if (open == batch) {
+      open = null;
+    }
+  }
+
+  /**
+   * Waits until the window has elapsed or the batch is full.
+   */
+  private synchronized void awaitClose(Batch<K, R> batch, long windowNanos) {
+    long deadline = batch.openedNanos + windowNanos;
+    boolean interrupted = false;
+    while (!batch.closed) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        break;
+      }
+      try {
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      } catch (InterruptedException e) {
+        // Other threads depend on this batch: query now and restore interrupted status
+        interrupted = true;
+        break;
+      }
+    }
+    close(batch);
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Queries all keys of a closed batch and completes each future.
+   */
+  private void execute(Batch<K, R> batch) {
+    int size = batch.futures.size();
+    stats.batches.increment();
+    stats.batchedKeys.add(size);
+    try {
+      Map<K, ? extends R> rows = bulkLoader.load(Collections.unmodifiableSet(batch.futures.keySet()));
+      for (Map.Entry<K, CompletableFuture<R>> entry : batch.futures.entrySet()) {
+        entry.getValue().complete(rows.get(entry.getKey()));
+      }
+    } catch (Throwable t) {
+      for (CompletableFuture<R> future : batch.futures.values()) {
+        future.completeExceptionally(t);
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Table;
+
+/**
+ * Notified of the loads, patches, and invalidations of the caches of all tables of a model,
+ * such as to feed an external metrics pipeline.  Lookups are not notified; their
+ * counts are available from {@link CacheStats}.
+ *
+ * <p>Listeners are called on the thread performing the load or update and should
+ * return quickly.  Any exception thrown by a listener is logged and otherwise ignored.</p>
+ *
+ * @see  AbstractModel#addCacheListener(com.aoapps.dao.base.CacheListener)
+ */
+public interface CacheListener {
+
+  /**
+   * Called after all rows of a table have been loaded.
+   *
+   * <p>This default implementation does nothing.</p>
+   *
+   * @param  rows   the number of rows loaded
+   * @param  nanos  the duration of the load, in nanoseconds
+   */
+  default void rowsLoaded(Table<?, ?> table, int rows, long nanos) {
+    // Does nothing.
+  }
+
+  /**
+   * Called after the cached rows of a table have been patched with only the changed rows, by
+   * {@link AbstractTable#rowsChanged(java.util.Collection, java.util.Collection, java.util.Collection)}.
+   *
+   * <p>This default implementation does nothing.</p>
+   *
+   * @param  rows   the number of distinct keys changed
+   * @param  nanos  the duration of the query and patch, in nanoseconds
+   */
+  default void rowsPatched(Table<?, ?> table, int rows, long nanos) {
+    // Does nothing.
+  }
+
+  /**
+   * Called after a load of all rows of a table has failed.
+   *
+   * <p>This default implementation does nothing.</p>
+   *
+   * @param  nanos  the duration of the failed load, in nanoseconds
+   */
+  default void loadFailed(Table<?, ?> table, long nanos, Throwable cause) {
+    // Does nothing.
+  }
+
+  /**
+   * Called after the caches of a table have been invalidated by {@link Table#tableUpdated()}.
+   *
+   * <p>This default implementation does nothing.</p>
+   */
+  default void tableUpdated(Table<?, ?> table) {
+    // Does nothing.
+  }
+}
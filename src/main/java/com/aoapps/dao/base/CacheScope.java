@@ -0,0 +1,167 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * The scope of the caches of {@link RowCacheTable} and {@link TableCacheTable},
+ * such as a request or other unit of work.
+ *
+ * <p>By default, each thread has its own implicit scope, which is discarded once
+ * all of its caches are cleared.  This works well with pooled threads, but
+ * with virtual threads or other short-lived threads, a new scope would be
+ * created for each thread.  Instead, a scope may be created for the unit of
+ * work and bound to each thread performing it:</p>
+ *
+ * <pre>CacheScope scope = new CacheScope();
+ * try (CacheScope.Binding binding = scope.bind()) {
+ *   // Caches are in scope
+ * }</pre>
+ *
+ * <p>A scope may be bound to different threads over time, such as across the
+ * asynchronous stages of a request, but the caches within a scope are not
+ * thread-safe and must not be used by multiple threads concurrently.
+ * For caches shared by all threads, see {@link RowCacheTable#isSharedCache()},
+ * {@link TableCacheTable#isSharedCache()}, and {@link GlobalCacheTable}.</p>
+ */
+public final class CacheScope {
+
+  private static final ThreadLocal<CacheScope> currentScope = new ThreadLocal<>();
+
+  /**
+   * Restores the previous scope of a thread when closed.
+   */
+  public static final class Binding implements AutoCloseable {
+
+    private final Thread thread;
+    private final CacheScope previous;
+
+    private Binding(Thread thread, CacheScope previous) {
+      this.thread = thread;
+      this.previous = previous;
+    }
+
+    /**
+     * Restores the scope that was current when bound.
+     *
+     * @throws  IllegalStateException  when closed by a different thread than bound
+     */
+    @Override
+    public void close() throws IllegalStateException {
+      if (Thread.currentThread() != thread) {
+        throw new IllegalStateException("Binding closed by a different thread than bound");
+      }
+      if (previous == null) {
+        currentScope.remove();
+      } else {
+        currentScope.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Gets the scope currently bound to this thread, or the implicit scope for
+   * this thread when none bound.
+   */
+  public static CacheScope getCurrent() {
+    CacheScope scope = currentScope.get();
+    if (scope == null) {
+      scope = new CacheScope(true);
+      currentScope.set(scope);
+    }
+    return scope;
+  }
+
+  private final boolean implicit;
+
+  /**
+   * The caches of each table, keyed by table.
+   */
+  private final ConcurrentMap<Object, Object> caches = new ConcurrentHashMap<>();
+
+  private CacheScope(boolean implicit) {
+    this.implicit = implicit;
+  }
+
+  /**
+   * Creates a new scope, not yet bound to any thread.
+   */
+  public CacheScope() {
+    this(false);
+  }
+
+  /**
+   * Binds this scope to the current thread until the binding is closed.
+   */
+  public Binding bind() {
+    Thread thread = Thread.currentThread();
+    CacheScope previous = currentScope.get();
+    currentScope.set(this);
+    return new Binding(thread, previous);
+  }
+
+  /**
+   * Clears all caches in this scope.
+   */
+  public void clear() {
+    caches.clear();
+  }
+
+  /**
+   * Gets the cache for the given table, creating when first used.
+   */
+  @SuppressWarnings("unchecked")
+  <C> C getCache(Object table, Supplier<? extends C> newCache) {
+    return (C) caches.computeIfAbsent(table, t -> newCache.get());
+  }
+
+  /**
+   * Gets the cache for the given table in the current scope, without creating
+   * an implicit scope.
+   *
+   * @return  the cache or {@code null} when not yet used
+   */
+  @SuppressWarnings("unchecked")
+  static <C> C getCurrentCacheIfExists(Object table) {
+    CacheScope scope = currentScope.get();
+    return scope == null ? null : (C) scope.caches.get(table);
+  }
+
+  /**
+   * Removes the cache for the given table from the current scope.  Once an
+   * implicit scope has no caches, it is removed from the thread.
+   */
+  static void removeCurrentCache(Object table) {
+    CacheScope scope = currentScope.get();
+    if (scope != null) {
+      scope.caches.remove(table);
+      if (scope.implicit && scope.caches.isEmpty()) {
+        currentScope.remove();
+      }
+    }
+  }
+}
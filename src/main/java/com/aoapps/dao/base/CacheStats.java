@@ -0,0 +1,238 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the activity of the caches of a single table, or of all tables of a
+ * {@linkplain AbstractModel#getCacheStats() model}.  The counts are cumulative
+ * since the table was created.
+ */
+public final class CacheStats {
+
+  /**
+   * The upper bounds of the buckets of {@link #getLoadTimeHistogram()}, in milliseconds.
+   */
+  private static final long[] LOAD_TIME_BOUNDS_MILLIS = {1, 10, 100, 1000, 10000};
+
+  final LongAdder hits = new LongAdder();
+  final LongAdder negativeHits = new LongAdder();
+  final LongAdder misses = new LongAdder();
+  final LongAdder evictions = new LongAdder();
+  final LongAdder expirations = new LongAdder();
+  final LongAdder batches = new LongAdder();
+  final LongAdder batchedKeys = new LongAdder();
+  final LongAdder batchWaitNanos = new LongAdder();
+  final LongAdder loads = new LongAdder();
+  final LongAdder loadFailures = new LongAdder();
+  final LongAdder rowsLoaded = new LongAdder();
+  final LongAdder loadNanos = new LongAdder();
+  final LongAdder invalidations = new LongAdder();
+  final LongAdder patches = new LongAdder();
+  private final LongAdder[] loadTimes = new LongAdder[LOAD_TIME_BOUNDS_MILLIS.length + 1];
+
+  CacheStats() {
+    // Created by tables and models only
+    for (int i = 0; i < loadTimes.length; i++) {
+      loadTimes[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a successful load of all rows.
+   */
+  void recordLoad(int rows, long nanos) {
+    loads.increment();
+    rowsLoaded.add(rows);
+    loadNanos.add(nanos);
+    int bucket = 0;
+    while (bucket < LOAD_TIME_BOUNDS_MILLIS.length && nanos >= LOAD_TIME_BOUNDS_MILLIS[bucket] * 1000000) {
+      bucket++;
+    }
+    loadTimes[bucket].increment();
+  }
+
+  /**
+   * Adds all counts of this table to the given total.
+   */
+  void addTo(CacheStats total) {
+    total.hits.add(hits.sum());
+    total.negativeHits.add(negativeHits.sum());
+    total.misses.add(misses.sum());
+    total.evictions.add(evictions.sum());
+    total.expirations.add(expirations.sum());
+    total.batches.add(batches.sum());
+    total.batchedKeys.add(batchedKeys.sum());
+    total.batchWaitNanos.add(batchWaitNanos.sum());
+    total.loads.add(loads.sum());
+    total.loadFailures.add(loadFailures.sum());
+    total.rowsLoaded.add(rowsLoaded.sum());
+    total.loadNanos.add(loadNanos.sum());
+    total.invalidations.add(invalidations.sum());
+    total.patches.add(patches.sum());
+    for (int i = 0; i < loadTimes.length; i++) {
+      total.loadTimes[i].add(loadTimes[i].sum());
+    }
+  }
+
+  /**
+   * The number of lookups that found a row in the cache.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * The number of lookups that found a cached absence of a row.
+   */
+  public long getNegativeHits() {
+    return negativeHits.sum();
+  }
+
+  /**
+   * The number of lookups that were not in the cache.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * The number of entries evicted from the cache to stay within its bounds.
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * The number of entries removed from the cache once their time-to-live expired.
+   */
+  public long getExpirations() {
+    return expirations.sum();
+  }
+
+  /**
+   * The number of batched queries performed for concurrent misses.
+   */
+  public long getBatches() {
+    return batches.sum();
+  }
+
+  /**
+   * The total number of keys queried by all batches.  Divide by
+   * {@link #getBatches()} for the average batch size.
+   */
+  public long getBatchedKeys() {
+    return batchedKeys.sum();
+  }
+
+  /**
+   * The total nanoseconds callers waited for batched queries, including the
+   * time waiting for each batch to fill.  Divide by {@link #getBatchedKeys()}
+   * for the approximate average latency.
+   */
+  public long getBatchWaitNanos() {
+    return batchWaitNanos.sum();
+  }
+
+  /**
+   * The number of times all rows were loaded.
+   */
+  public long getLoads() {
+    return loads.sum();
+  }
+
+  /**
+   * The number of times loading all rows failed.
+   */
+  public long getLoadFailures() {
+    return loadFailures.sum();
+  }
+
+  /**
+   * The total number of rows returned by all {@linkplain #getLoads() loads}.
+   */
+  public long getRowsLoaded() {
+    return rowsLoaded.sum();
+  }
+
+  /**
+   * The total nanoseconds spent in all successful {@linkplain #getLoads() loads}.
+   * Divide by {@link #getLoads()} for the average load time.
+   */
+  public long getLoadNanos() {
+    return loadNanos.sum();
+  }
+
+  /**
+   * The distribution of the durations of successful {@linkplain #getLoads() loads}.
+   * The buckets count loads taking less than 1 ms, 10 ms, 100 ms, 1 second,
+   * and 10 seconds, with the final bucket counting all longer loads.
+   *
+   * @return  a new array of the count in each bucket
+   */
+  public long[] getLoadTimeHistogram() {
+    long[] histogram = new long[loadTimes.length];
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] = loadTimes[i].sum();
+    }
+    return histogram;
+  }
+
+  /**
+   * The number of times the caches were invalidated by {@link com.aoapps.dao.Table#tableUpdated()}.
+   */
+  public long getInvalidations() {
+    return invalidations.sum();
+  }
+
+  /**
+   * The number of times the cached rows were patched in place by
+   * {@link AbstractTable#rowsChanged(java.util.Collection, java.util.Collection, java.util.Collection)}
+   * instead of being invalidated.
+   */
+  public long getPatches() {
+    return patches.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "hits=" + getHits()
+        + ", negativeHits=" + getNegativeHits()
+        + ", misses=" + getMisses()
+        + ", evictions=" + getEvictions()
+        + ", expirations=" + getExpirations()
+        + ", batches=" + getBatches()
+        + ", batchedKeys=" + getBatchedKeys()
+        + ", batchWaitNanos=" + getBatchWaitNanos()
+        + ", loads=" + getLoads()
+        + ", loadFailures=" + getLoadFailures()
+        + ", rowsLoaded=" + getRowsLoaded()
+        + ", loadNanos=" + getLoadNanos()
+        + ", loadTimeHistogram=" + Arrays.toString(getLoadTimeHistogram())
+        + ", invalidations=" + getInvalidations()
+        + ", patches=" + getPatches();
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import com.aoapps.dao.Table;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Indexes rows with {@link Integer} or {@link Short} keys in a small contiguous
+ * range by direct address in an array, offset by the smallest key.
+ */
+final class DenseRowIndex<K, R> extends RowIndex<K, R> {
+
+  /**
+   * Is a range of keys dense enough to be indexed by direct address?  The range
+   * must be no more than twice the number of rows, so the array is no larger
+   * than an open-addressing hash table of the same rows.
+   *
+   * @param  min   the smallest key
+   * @param  max   the largest key
+   * @param  size  the number of rows
+   */
+  static boolean isDense(int min, int max, int size) {
+    return size > 0 && ((long) max - min + 1) <= 2L * size;
+  }
+
+  /**
+   * Indexes rows when their canonical keys are dense.
+   *
+   * @param  table  the table, with keys of {@link Integer} or {@link Short}
+   *
+   * @return  the index or {@code null} when keys are not {@linkplain #isDense(int, int, int) dense}
+   *
+   * @throws  SQLException  when any canonical key is duplicated
+   */
+  static <K extends Comparable<? super K>, R extends Row<K, ?>> DenseRowIndex<K, R> of(
+      Table<K, ? extends R> table,
+      Collection<? extends R> rows
+  ) throws SQLException {
+    Object[] array = rows.toArray();
+    int size = array.length;
+    int[] keys = new int[size];
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      @SuppressWarnings("unchecked")
+      R row = (R) array[i];
+      int key = ((Number) table.canonicalize(row.getKey())).intValue();
+      keys[i] = key;
+      if (key < min) {
+        min = key;
+      }
+      if (key > max) {
+        max = key;
+      }
+    }
+    return isDense(min, max, size) ? index(array, keys, min, max) : null;
+  }
+
+  /**
+   * Indexes rows by keys already known to be {@linkplain #isDense(int, int, int) dense}.
+   *
+   * @param  rows  the rows, in the same order as their keys
+   * @param  keys  the canonical key of each row
+   * @param  min   the smallest key
+   * @param  max   the largest key
+   *
+   * @throws  SQLException  when any canonical key is duplicated
+   */
+  static <K, R> DenseRowIndex<K, R> index(Object[] rows, int[] keys, int min, int max) throws SQLException {
+    Object[] values = new Object[max - min + 1];
+    for (int i = 0; i < rows.length; i++) {
+      int slot = keys[i] - min;
+      if (values[slot] != null) {
+        throw new SQLException("Duplicate key: " + keys[i]);
+      }
+      values[slot] = rows[i];
+    }
+    return new DenseRowIndex<>(values, min);
+  }
+
+  private final Object[] values;
+  private final int offset;
+
+  private DenseRowIndex(Object[] values, int offset) {
+    this.values = values;
+    this.offset = offset;
+  }
+
+  /**
+   * Gets the slot of a key.
+   *
+   * @return  the slot or {@code -1} when out of range
+   */
+  private int slot(Object canonicalKey) {
+    return slot(((Number) canonicalKey).intValue());
+  }
+
+  private int slot(int key) {
+    long slot = (long) key - offset;
+    return (slot >= 0 && slot < values.length) ? (int) slot : -1;
+  }
+
+  @Override
+  R get(K canonicalKey) {
+    return canonicalKey == null ? null : get(((Number) canonicalKey).intValue());
+  }
+
+  /**
+   * Gets the row for the given key, without boxing the key.
+   *
+   * @return  the row or {@code null} when not found
+   */
+  @SuppressWarnings("unchecked")
+  R get(int key) {
+    int slot = slot(key);
+    return slot == -1 ? null : (R) values[slot];
+  }
+
+  /**
+   * Copies the array then applies the changes, as long as all inserted keys
+   * are within the range of this index.
+   */
+  @Override
+  DenseRowIndex<K, R> patch(
+      Collection<? extends K> removedCanonicalKeys,
+      Map<K, ? extends R> inserted
+  ) throws SQLException {
+    for (K canonicalKey : inserted.keySet()) {
+      if (slot(canonicalKey) == -1) {
+        return null;
+      }
+    }
+    Object[] patched = Arrays.copyOf(values, values.length);
+    for (K canonicalKey : removedCanonicalKeys) {
+      int slot = slot(canonicalKey);
+      if (slot != -1) {
+        patched[slot] = null;
+      }
+    }
+    for (Map.Entry<K, ? extends R> entry : inserted.entrySet()) {
+      int slot = slot(entry.getKey());
+      if (patched[slot] != null) {
+        throw new SQLException("Duplicate key: " + entry.getKey());
+      }
+      patched[slot] = entry.getValue();
+    }
+    return new DenseRowIndex<>(patched, offset);
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2016, 2021, 2022, 2023  AO Industries, Inc.
+ * Copyright (C) 2016, 2021, 2022, 2023, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -29,6 +29,7 @@ import com.aoapps.dao.Table;
 import com.aoapps.dbc.NoRowException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -77,5 +78,10 @@ public class EmptyTable<
     throw new NoRowException(getName() + " not found: " + key);
   }
 
-  // TODO: getOptional
+  /**
+   * Never finds any object.
+   */
+  public Optional<R> getOptional(K key) {
+    return Optional.empty();
+  }
 }
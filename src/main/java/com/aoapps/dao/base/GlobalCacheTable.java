@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2011, 2012, 2013, 2015, 2016, 2020, 2021, 2022, 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2011, 2012, 2013, 2015, 2016, 2020, 2021, 2022, 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,22 +27,38 @@ import com.aoapps.dao.Model;
 import com.aoapps.dao.Row;
 import com.aoapps.dbc.NoRowException;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * Caches results by querying the entire table upon first use, the cache is
  * persistent and shared by all users.
  * <ol>
- *   <li>All rows are loaded and stored unsorted</li>
- *   <li>allRowsLoaded is called, given unsorted rows</li>
- *   <li>Map is built upon first call to get(K)</li>
- *   <li>Rows are sorted upon first call to getRows</li>
+ *   <li>All rows are {@linkplain #getRowsNoCache(java.util.function.Consumer) streamed} into a single array,
+ *       presized from the previous load</li>
+ *   <li>Rows are indexed by key then sorted in place, in parallel for large loads</li>
+ *   <li>Any {@linkplain #addUniqueIndex(java.util.function.Function) secondary indexes} are built from all rows</li>
+ *   <li>allRowsLoaded is called, given the rows</li>
+ *   <li>The resulting immutable snapshot is published for lock-free reads</li>
  * </ol>
+ * When only some rows have changed, {@link #rowsChanged(java.util.Collection, java.util.Collection, java.util.Collection)}
+ * queries the changed rows by {@link #getNoCache(java.util.Collection)} and publishes a patched copy
+ * of the snapshot instead.
+ * By default, {@link #tableUpdated()} discards the snapshot and the next reader
+ * waits for the reload.  When a {@linkplain #getRefreshExecutor() refresh executor}
+ * is provided, the previous snapshot continues to be served while reloading in
+ * the background, for up to {@linkplain #getMaxStaleness() the maximum staleness}.
  * TODO: Coordinate invalidation between nodes in cluster
  * TODO: Coordinate invalidation between PHP and Java
  * TODO: Once both done, more aggressively use global caches for better remote database performance
@@ -53,49 +69,249 @@ public abstract class GlobalCacheTable<
     R extends Row<K, ?>
     > extends AbstractTable<K, R> {
 
-  private final Object unsortedRowsCacheLock = new Object();
-  private Set<? extends R> unsortedRowsCache;
+  /**
+   * The snapshot of all rows, loaded at most once per {@link #tableUpdated()}.
+   * Reads are performed without any locking.
+   */
+  private final SharedCache<TableSnapshot<K, R>> snapshot = new SharedCache<>(this::loadSnapshot);
 
-  private final Object sortedRowsCacheLock = new Object();
-  private SortedSet<? extends R> sortedRowsCache;
+  /**
+   * The secondary indexes, built into each snapshot.
+   */
+  private final SecondaryIndexes<R> secondaryIndexes = new SecondaryIndexes<>(this, () -> getSnapshot().getSecondaryIndexes());
+
+  /**
+   * The number of rows in the most recent load, used to presize the next load.
+   */
+  private volatile int lastLoadSize;
 
-  private final Object rowCacheLock = new Object();
-  private boolean rowCacheLoaded;
-  private final Map<K, R> rowCache = new HashMap<>();
+  /**
+   * Consulted only while the snapshot is stale.
+   */
+  private final LongSupplier maxStalenessNanos = () -> getMaxStaleness().toNanos();
 
   protected GlobalCacheTable(Class<K> keyClass, Class<R> rowClass, Model model) {
     super(keyClass, rowClass, model);
   }
 
   /**
-   * Clears the global caches when the table is updated.
+   * Clears the global caches when the table is updated.  When a
+   * {@linkplain #getRefreshExecutor() refresh executor} is provided, the rows
+   * are reloaded in the background while the previous rows continue to be served.
    */
   @Override
   public void tableUpdated() {
+    snapshot.invalidate();
+    Executor executor = getRefreshExecutor();
+    if (executor != null) {
+      snapshot.refresh(executor);
+    }
     super.tableUpdated();
-    synchronized (unsortedRowsCacheLock) {
-      unsortedRowsCache = null;
+  }
+
+  /**
+   * Adds a unique index on a value of each row, such as a unique column.
+   * The index is built along with the cached rows, and rows with a {@code null}
+   * value are not indexed.  Must be called before rows are first loaded,
+   * typically while initializing a field of the subclass.
+   *
+   * @param  extractor  gets the value of a row, which must have consistent
+   *                    {@link Object#equals(java.lang.Object)} and {@link Object#hashCode()}
+   *
+   * @throws  IllegalStateException  when rows have already been loaded
+   */
+  protected <C> UniqueIndex<C, R> addUniqueIndex(Function<? super R, ? extends C> extractor) throws IllegalStateException {
+    return new UniqueIndex<>(secondaryIndexes, secondaryIndexes.add(extractor, true));
+  }
+
+  /**
+   * Adds a non-unique index on a value of each row, such as a foreign key.
+   * The index is built along with the cached rows, and rows with a {@code null}
+   * value are not indexed.  Must be called before rows are first loaded,
+   * typically while initializing a field of the subclass.
+   *
+   * @param  extractor  gets the value of a row, which must have consistent
+   *                    {@link Object#equals(java.lang.Object)} and {@link Object#hashCode()}
+   *
+   * @throws  IllegalStateException  when rows have already been loaded
+   */
+  protected <C> NonUniqueIndex<C, R> addNonUniqueIndex(Function<? super R, ? extends C> extractor) throws IllegalStateException {
+    return new NonUniqueIndex<>(secondaryIndexes, secondaryIndexes.add(extractor, false));
+  }
+
+  /**
+   * Gets the executor used to reload all rows in the background after {@link #tableUpdated()}.
+   *
+   * <p>This default implementation returns {@code null}, which discards the cached rows
+   * immediately so the next reader waits for the reload.</p>
+   */
+  protected Executor getRefreshExecutor() {
+    return null;
+  }
+
+  /**
+   * Gets the maximum amount of time the previous rows will be served after {@link #tableUpdated()}
+   * while being reloaded in the background.  Once exceeded, readers wait for the reload to complete.
+   * Only used when a {@linkplain #getRefreshExecutor() refresh executor} is provided.
+   *
+   * <p>This default implementation returns one minute.</p>
+   */
+  protected Duration getMaxStaleness() {
+    return Duration.ofMinutes(1);
+  }
+
+  /**
+   * Gets the number of rows at which a load is sorted and indexed in parallel
+   * within {@linkplain #getParallelLoadPool() the parallel load pool}.  Smaller
+   * loads are sorted and indexed on the loading thread.
+   *
+   * <p>This default implementation returns {@code 100000}.</p>
+   */
+  protected int getParallelLoadThreshold() {
+    return 100000;
+  }
+
+  /**
+   * Gets the pool used to sort and index loads of at least
+   * {@linkplain #getParallelLoadThreshold() the parallel load threshold} rows.
+   *
+   * <p>This default implementation returns {@link ForkJoinPool#commonPool()}.</p>
+   *
+   * @return  the pool or {@code null} to always sort and index on the loading thread
+   */
+  protected ForkJoinPool getParallelLoadPool() {
+    return ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Gets the maximum staleness of the previous rows served while reloading.
+   *
+   * @return  the maximum staleness or {@code null} to never serve the previous rows,
+   *          when there is no {@linkplain #getRefreshExecutor() refresh executor}
+   */
+  private LongSupplier getMaxStalenessNanos() {
+    return getRefreshExecutor() == null ? null : maxStalenessNanos;
+  }
+
+  /**
+   * Gets the current snapshot, loading all rows when needed.  Concurrent
+   * callers join the single in-flight load.
+   */
+  TableSnapshot<K, R> getSnapshot() throws SQLException {
+    return snapshot.get(getMaxStalenessNanos());
+  }
+
+  /**
+   * Streams all rows into a single array then builds the key index, sorted view,
+   * and secondary indexes directly from the array.
+   */
+  private TableSnapshot<K, R> loadSnapshot() throws SQLException {
+    TableSnapshot<K, R> newSnapshot = TableSnapshot.<K, R>load(
+        this,
+        this::getRowsNoCache,
+        lastLoadSize,
+        size -> size >= getParallelLoadThreshold() ? getParallelLoadPool() : null,
+        secondaryIndexes,
+        this::allRowsLoaded
+    );
+    lastLoadSize = newSnapshot.getUnsortedRows().size();
+    return newSnapshot;
+  }
+
+  /**
+   * Patches a copy of the current snapshot with the rows of the given keys, as queried by
+   * {@link #getNoCache(java.util.Collection)}, then publishes the copy.  Readers
+   * continue to use the previous snapshot until the copy is published.  The sorted rows
+   * are merged in place of the changed rows, the key index is copied and patched
+   * where supported, and secondary indexes are copied and patched.  Only the changed
+   * rows are queried and indexed, but copying the snapshot is still proportional to
+   * the number of rows.  {@link #allRowsLoaded(java.util.Set)} is called with the
+   * patched rows.
+   *
+   * <p>When rows are not currently loaded, or {@link #getNoCache(java.util.Collection)}
+   * is not implemented, this is the same as {@link #tableUpdated()}.  When the patch fails,
+   * such as on a duplicate key, {@link #tableUpdated()} is called before the failure is thrown.</p>
+   */
+  @Override
+  public void rowsChanged(
+      Collection<? extends K> inserted,
+      Collection<? extends K> updated,
+      Collection<? extends K> deleted
+  ) throws SQLException {
+    Set<K> changedKeys = new LinkedHashSet<>();
+    for (K key : inserted) {
+      changedKeys.add(canonicalize(key));
+    }
+    for (K key : updated) {
+      changedKeys.add(canonicalize(key));
     }
-    synchronized (sortedRowsCacheLock) {
-      sortedRowsCache = null;
+    Set<K> removedKeys = new LinkedHashSet<>(changedKeys);
+    for (K key : deleted) {
+      removedKeys.add(canonicalize(key));
     }
-    synchronized (rowCacheLock) {
-      rowCacheLoaded = false;
-      rowCache.clear();
+    if (removedKeys.isEmpty()) {
+      return;
+    }
+    long startNanos = System.nanoTime();
+    while (true) {
+      TableSnapshot<K, R> current = snapshot.getIfCurrent();
+      if (current == null) {
+        tableUpdated();
+        return;
+      }
+      // Queried after both the change and the current snapshot, so always at least as new as the current
+      // snapshot.  Keys both deleted and inserted or updated are queried, since their order is unknown.
+      Map<K, ? extends R> changedRows = changedKeys.isEmpty()
+          ? Collections.emptyMap()
+          : getNoCache(Collections.unmodifiableSet(changedKeys));
+      if (changedRows == null) {
+        tableUpdated();
+        return;
+      }
+      TableSnapshot<K, R> patched;
+      try {
+        patched = current.patch(this, removedKeys, changedRows, secondaryIndexes);
+      } catch (SQLException | RuntimeException e) {
+        // The rows have already changed, so the current snapshot must not continue to be served
+        tableUpdated();
+        throw e;
+      }
+      if (snapshot.replace(current, patched)) {
+        cacheStats.patches.increment();
+        Model model = getModel();
+        if (model instanceof AbstractModel) {
+          ((AbstractModel) model).fireRowsPatched(this, removedKeys.size(), System.nanoTime() - startNanos);
+        }
+        allRowsLoaded(patched.getUnsortedRows());
+        return;
+      }
+      // Lost race with another change or reload, which may be newer than the rows queried, so query again
     }
   }
 
   @Override
   public Set<? extends R> getUnsortedRows() throws SQLException {
-    synchronized (unsortedRowsCacheLock) {
-      Set<? extends R> rows = unsortedRowsCache;
-      if (rows == null) {
-        rows = Collections.unmodifiableSet(getRowsNoCache());
-        allRowsLoaded(rows);
-        unsortedRowsCache = rows;
-      }
-      return rows;
-    }
+    return getSnapshot().getUnsortedRows();
+  }
+
+  @Override
+  Optional<R> getCachedOptional(K canonicalKey) {
+    TableSnapshot<K, R> available = snapshot.getIfAvailable(getMaxStalenessNanos());
+    return available == null ? null : Optional.ofNullable(available.get(canonicalKey));
+  }
+
+  @Override
+  SortedSet<? extends R> getCachedRows() {
+    TableSnapshot<K, R> available = snapshot.getIfAvailable(getMaxStalenessNanos());
+    return available == null ? null : available.getRows();
+  }
+
+  /**
+   * Waits for any background refresh instead of serving the previous rows.
+   */
+  @Override
+  SortedSet<? extends R> getCurrentRows() throws SQLException {
+    return snapshot.get().getRows();
   }
 
   /**
@@ -111,38 +327,56 @@ public abstract class GlobalCacheTable<
 
   @Override
   public SortedSet<? extends R> getRows() throws SQLException {
-    synchronized (sortedRowsCacheLock) {
-      SortedSet<? extends R> rows = sortedRowsCache;
-      if (rows == null) {
-        rows = Collections.unmodifiableSortedSet(new TreeSet<>(getUnsortedRows()));
-        sortedRowsCache = rows;
-      }
-      return rows;
-    }
+    return getSnapshot().getRows();
+  }
+
+  @Override
+  RowArrayMap<K, R> getSortedRowMap() throws SQLException {
+    return getSnapshot().getSortedRowMap();
   }
 
   @Override
   public R get(K key) throws NoRowException, SQLException {
-    synchronized (rowCacheLock) {
-      if (!rowCacheLoaded) {
-        // Load all rows in a single query
-        rowCache.clear();
-        for (R row : getUnsortedRows()) {
-          if (rowCache.put(canonicalize(row.getKey()), row) != null) {
-            throw new SQLException("Duplicate key: " + row.getKey());
-          }
-        }
-        rowCacheLoaded = true;
-      }
-      R row = rowCache.get(canonicalize(key));
-      if (row == null) {
-        throw new NoRowException(getName() + " not found: " + key);
-      }
-      return row;
+    R row = countLookup(getSnapshot().get(canonicalize(key)));
+    if (row == null) {
+      throw new NoRowException(getName() + " not found: " + key);
     }
+    return row;
   }
 
-  // TODO: getOptional
+  @Override
+  public Optional<R> getOptional(K key) throws SQLException {
+    return Optional.ofNullable(countLookup(getSnapshot().get(canonicalize(key))));
+  }
 
   protected abstract Set<? extends R> getRowsNoCache() throws SQLException;
+
+  /**
+   * Streams all rows to the given consumer, such as while iterating a result set.
+   * Implementing this avoids materializing a set of all rows, so a load holds no
+   * more than a single array of the rows and the indexes built from it.
+   *
+   * <p>This default implementation passes each row of {@link #getRowsNoCache()}.</p>
+   *
+   * @param  rows  receives each row, in any order
+   */
+  protected void getRowsNoCache(Consumer<? super R> rows) throws SQLException {
+    getRowsNoCache().forEach(rows);
+  }
+
+  /**
+   * Queries any number of rows at once, such as with {@code WHERE key = ANY(?)}.
+   * Used by {@link #rowsChanged(java.util.Collection, java.util.Collection, java.util.Collection)}
+   * to query only the changed rows.
+   *
+   * <p>This default implementation returns {@code null}, so all rows are reloaded instead.</p>
+   *
+   * @param  canonicalKeys  the distinct canonical keys, never empty
+   *
+   * @return  the rows found, keyed by canonical key, or {@code null} when not supported.
+   *          Keys that do not exist are not included.
+   */
+  protected Map<K, ? extends R> getNoCache(Collection<K> canonicalKeys) throws SQLException {
+    return null;
+  }
 }
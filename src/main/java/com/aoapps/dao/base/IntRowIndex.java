@@ -0,0 +1,238 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Indexes rows by {@code int} key, with lookups by {@link #get(int)} that do not box the key.
+ * Keys in a small contiguous range are indexed by direct address in an array,
+ * otherwise in an open-addressing hash table.
+ */
+abstract class IntRowIndex<R> extends RowIndex<Integer, R> {
+
+  /**
+   * Indexes rows by their {@code int} keys.
+   *
+   * @throws  SQLException  when any key is duplicated
+   */
+  static <R extends Row<Integer, ?>> IntRowIndex<R> of(Collection<? extends R> rows) throws SQLException {
+    Object[] array = rows.toArray();
+    int size = array.length;
+    int[] keys = new int[size];
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      @SuppressWarnings("unchecked")
+      R row = (R) array[i];
+      int key = row.getKey();
+      keys[i] = key;
+      if (key < min) {
+        min = key;
+      }
+      if (key > max) {
+        max = key;
+      }
+    }
+    return DenseRowIndex.isDense(min, max, size)
+        ? new Dense<>(DenseRowIndex.index(array, keys, min, max))
+        : Hashed.index(array, keys);
+  }
+
+  /**
+   * Gets the row for the given key.
+   *
+   * @return  the row or {@code null} when not found
+   */
+  abstract R get(int key);
+
+  @Override
+  final R get(Integer canonicalKey) {
+    return canonicalKey == null ? null : get(canonicalKey.intValue());
+  }
+
+  /**
+   * Indexes rows by direct address in an array, by {@link DenseRowIndex}.
+   */
+  private static final class Dense<R> extends IntRowIndex<R> {
+
+    private final DenseRowIndex<Integer, R> dense;
+
+    private Dense(DenseRowIndex<Integer, R> dense) {
+      this.dense = dense;
+    }
+
+    @Override
+    R get(int key) {
+      return dense.get(key);
+    }
+
+    @Override
+    RowIndex<Integer, R> patch(
+        Collection<? extends Integer> removedCanonicalKeys,
+        Map<Integer, ? extends R> inserted
+    ) throws SQLException {
+      DenseRowIndex<Integer, R> patched = dense.patch(removedCanonicalKeys, inserted);
+      return patched == null ? null : new Dense<>(patched);
+    }
+  }
+
+  /**
+   * Indexes rows in an open-addressing hash table of primitive keys, without
+   * an entry object per row.
+   */
+  private static final class Hashed<R> extends IntRowIndex<R> {
+
+    /**
+     * The maximum capacity of the table, which is kept at least twice the number of rows.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static <R> Hashed<R> index(Object[] rows, int[] rowKeys) throws SQLException {
+      int size = rows.length;
+      if (size > MAX_CAPACITY / 2) {
+        throw new SQLException("Too many rows to index: " + size);
+      }
+      int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+      int[] keys = new int[capacity];
+      Object[] values = new Object[capacity];
+      for (int i = 0; i < size; i++) {
+        put(keys, values, rowKeys[i], rows[i]);
+      }
+      return new Hashed<>(keys, values, size);
+    }
+
+    private static int hash(int key) {
+      // Spread by the golden ratio so sequential keys do not cluster
+      int h = key * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+
+    /**
+     * Adds a row to a table with room for it.
+     *
+     * @throws  SQLException  when the key is duplicated
+     */
+    private static void put(int[] keys, Object[] values, int key, Object row) throws SQLException {
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (values[slot] != null) {
+        if (keys[slot] == key) {
+          throw new SQLException("Duplicate key: " + key);
+        }
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = row;
+    }
+
+    /**
+     * Removes a row from a table, shifting back any following rows of the same
+     * probe sequence so they are still found.
+     *
+     * @return  {@code true} when the key was found
+     */
+    private static boolean remove(int[] keys, Object[] values, int key) {
+      int mask = keys.length - 1;
+      int gap = hash(key) & mask;
+      while (true) {
+        if (values[gap] == null) {
+          return false;
+        }
+        if (keys[gap] == key) {
+          break;
+        }
+        gap = (gap + 1) & mask;
+      }
+      int next = (gap + 1) & mask;
+      while (values[next] != null) {
+        // Moves back when the home slot of the row is not between the gap and the row
+        if (((next - (hash(keys[next]) & mask)) & mask) >= ((next - gap) & mask)) {
+          keys[gap] = keys[next];
+          values[gap] = values[next];
+          gap = next;
+        }
+        next = (next + 1) & mask;
+      }
+      keys[gap] = 0;
+      values[gap] = null;
+      return true;
+    }
+
+    private final int[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private Hashed(int[] keys, Object[] values, int size) {
+      this.keys = keys;
+      this.values = values;
+      this.mask = keys.length - 1;
+      this.size = size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    R get(int key) {
+      int slot = hash(key) & mask;
+      while (true) {
+        Object value = values[slot];
+        if (value == null || keys[slot] == key) {
+          return (R) value;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+
+    /**
+     * Copies the table then applies the changes, as long as the table remains
+     * at least twice the number of rows.
+     */
+    @Override
+    RowIndex<Integer, R> patch(
+        Collection<? extends Integer> removedCanonicalKeys,
+        Map<Integer, ? extends R> inserted
+    ) throws SQLException {
+      int[] patchedKeys = keys.clone();
+      Object[] patchedValues = values.clone();
+      int patchedSize = size;
+      for (Integer canonicalKey : removedCanonicalKeys) {
+        if (remove(patchedKeys, patchedValues, canonicalKey)) {
+          patchedSize--;
+        }
+      }
+      patchedSize += inserted.size();
+      if (2L * patchedSize > patchedKeys.length) {
+        return null;
+      }
+      for (Map.Entry<Integer, ? extends R> entry : inserted.entrySet()) {
+        put(patchedKeys, patchedValues, entry.getKey(), entry.getValue());
+      }
+      return new Hashed<>(patchedKeys, patchedValues, patchedSize);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Model;
+import com.aoapps.dao.Row;
+import com.aoapps.dbc.NoRowException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A {@link GlobalCacheTable} with {@code long} keys.  Rows are indexed in an
+ * open-addressing table of primitive keys instead of a {@link java.util.HashMap},
+ * and {@link #get(long)} looks-up rows without boxing the key.
+ *
+ * <p>Keys are not canonicalized.</p>
+ */
+public abstract class LongKeyGlobalCacheTable<
+    R extends Row<Long, ?>
+    > extends GlobalCacheTable<Long, R> {
+
+  protected LongKeyGlobalCacheTable(Class<R> rowClass, Model model) {
+    super(Long.class, rowClass, model);
+  }
+
+  /**
+   * Keys are not canonicalized.
+   */
+  @Override
+  public final Long canonicalize(Long key) {
+    return key;
+  }
+
+  @Override
+  RowIndex<Long, R> newRowIndex(Collection<? extends R> rows, ForkJoinPool parallelPool) throws SQLException {
+    return LongRowIndex.of(rows);
+  }
+
+  private LongRowIndex<R> getIndex() throws SQLException {
+    return (LongRowIndex<R>) getSnapshot().getIndex();
+  }
+
+  /**
+   * Gets the row for the given key, without boxing the key.
+   *
+   * @see  #get(java.lang.Comparable)
+   */
+  public R get(long key) throws NoRowException, SQLException {
+    R row = countLookup(getIndex().get(key));
+    if (row == null) {
+      throw new NoRowException(getName() + " not found: " + key);
+    }
+    return row;
+  }
+
+  /**
+   * Gets the row for the given key, if exists, without boxing the key.
+   *
+   * @see  #getOptional(java.lang.Comparable)
+   */
+  public Optional<R> getOptional(long key) throws SQLException {
+    return Optional.ofNullable(countLookup(getIndex().get(key)));
+  }
+}
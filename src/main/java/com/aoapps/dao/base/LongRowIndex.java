@@ -0,0 +1,191 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Indexes rows by {@code long} key, with lookups by {@link #get(long)} that do not box the key.
+ */
+abstract class LongRowIndex<R> extends RowIndex<Long, R> {
+
+  /**
+   * Indexes rows by their {@code long} keys.
+   *
+   * @throws  SQLException  when any key is duplicated
+   */
+  static <R extends Row<Long, ?>> LongRowIndex<R> of(Collection<? extends R> rows) throws SQLException {
+    return Hashed.index(rows);
+  }
+
+  /**
+   * Gets the row for the given key.
+   *
+   * @return  the row or {@code null} when not found
+   */
+  abstract R get(long key);
+
+  @Override
+  final R get(Long canonicalKey) {
+    return canonicalKey == null ? null : get(canonicalKey.longValue());
+  }
+
+  /**
+   * Indexes rows in an open-addressing hash table of primitive keys, without
+   * an entry object per row.
+   */
+  private static final class Hashed<R> extends LongRowIndex<R> {
+
+    /**
+     * The maximum capacity of the table, which is kept at least twice the number of rows.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private static <R extends Row<Long, ?>> Hashed<R> index(Collection<? extends R> rows) throws SQLException {
+      int size = rows.size();
+      if (size > MAX_CAPACITY / 2) {
+        throw new SQLException("Too many rows to index: " + size);
+      }
+      int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+      long[] keys = new long[capacity];
+      Object[] values = new Object[capacity];
+      for (R row : rows) {
+        put(keys, values, row.getKey(), row);
+      }
+      return new Hashed<>(keys, values, size);
+    }
+
+    private static int hash(long key) {
+      // Spread by the golden ratio so sequential keys do not cluster
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Adds a row to a table with room for it.
+     *
+     * @throws  SQLException  when the key is duplicated
+     */
+    private static void put(long[] keys, Object[] values, long key, Object row) throws SQLException {
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (values[slot] != null) {
+        if (keys[slot] == key) {
+          throw new SQLException("Duplicate key: " + key);
+        }
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = row;
+    }
+
+    /**
+     * Removes a row from a table, shifting back any following rows of the same
+     * probe sequence so they are still found.
+     *
+     * @return  {@code true} when the key was found
+     */
+    private static boolean remove(long[] keys, Object[] values, long key) {
+      int mask = keys.length - 1;
+      int gap = hash(key) & mask;
+      while (true) {
+        if (values[gap] == null) {
+          return false;
+        }
+        if (keys[gap] == key) {
+          break;
+        }
+        gap = (gap + 1) & mask;
+      }
+      int next = (gap + 1) & mask;
+      while (values[next] != null) {
+        // Moves back when the home slot of the row is not between the gap and the row
+        if (((next - (hash(keys[next]) & mask)) & mask) >= ((next - gap) & mask)) {
+          keys[gap] = keys[next];
+          values[gap] = values[next];
+          gap = next;
+        }
+        next = (next + 1) & mask;
+      }
+      keys[gap] = 0;
+      values[gap] = null;
+      return true;
+    }
+
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    private Hashed(long[] keys, Object[] values, int size) {
+      this.keys = keys;
+      this.values = values;
+      this.mask = keys.length - 1;
+      this.size = size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    R get(long key) {
+      int slot = hash(key) & mask;
+      while (true) {
+        Object value = values[slot];
+        if (value == null || keys[slot] == key) {
+          return (R) value;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+
+    /**
+     * Copies the table then applies the changes, as long as the table remains
+     * at least twice the number of rows.
+     */
+    @Override
+    RowIndex<Long, R> patch(
+        Collection<? extends Long> removedCanonicalKeys,
+        Map<Long, ? extends R> inserted
+    ) throws SQLException {
+      long[] patchedKeys = keys.clone();
+      Object[] patchedValues = values.clone();
+      int patchedSize = size;
+      for (Long canonicalKey : removedCanonicalKeys) {
+        if (remove(patchedKeys, patchedValues, canonicalKey)) {
+          patchedSize--;
+        }
+      }
+      patchedSize += inserted.size();
+      if (2L * patchedSize > patchedKeys.length) {
+        return null;
+      }
+      for (Map.Entry<Long, ? extends R> entry : inserted.entrySet()) {
+        put(patchedKeys, patchedValues, entry.getKey(), entry.getValue());
+      }
+      return new Hashed<>(patchedKeys, patchedValues, patchedSize);
+    }
+  }
+}
@@ -0,0 +1,692 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * An immutable map of rows sorted by key, stored in arrays and searched by
+ * binary search.  Range views share the arrays of the map they were created
+ * from, so are created in O(log n) without copying.
+ *
+ * <p>Like other index-based immutable maps, range views are clamped to the
+ * range of the map they were created from instead of throwing
+ * {@link IllegalArgumentException} for keys outside the range.</p>
+ */
+final class RowArrayMap<K, R> extends AbstractMap<K, R> implements NavigableMap<K, R> {
+
+  private final Object[] keys;
+  private final Object[] rows;
+  private final Comparator<? super K> comparator;
+
+  /**
+   * The range of indexes in this view, from inclusive to exclusive.
+   */
+  private final int from;
+  private final int to;
+
+  private final boolean descending;
+
+  private RowArrayMap(Object[] keys, Object[] rows, Comparator<? super K> comparator, int from, int to, boolean descending) {
+    this.keys = keys;
+    this.rows = rows;
+    this.comparator = comparator;
+    this.from = from;
+    this.to = to;
+    this.descending = descending;
+  }
+
+  /**
+   * Compares rows by key.
+   *
+   * @param  comparator  the key comparator or {@code null} for natural ordering
+   */
+  @SuppressWarnings("unchecked")
+  static <K extends Comparable<? super K>, R extends Row<K, ?>> Comparator<Object> keyOrder(Comparator<? super K> comparator) {
+    return (row1, row2) -> {
+      K key1 = ((R) row1).getKey();
+      K key2 = ((R) row2).getKey();
+      return comparator == null ? key1.compareTo(key2) : comparator.compare(key1, key2);
+    };
+  }
+
+  /**
+   * Indexes sorted rows by key.
+   *
+   * @param  sortedRows  the rows, typically in the same order as {@code comparator}
+   * @param  comparator  the key comparator or {@code null} for natural ordering
+   *
+   * @see  #of(java.lang.Object[], java.util.Comparator)
+   */
+  static <K extends Comparable<? super K>, R extends Row<K, ?>> RowArrayMap<K, R> of(
+      SortedSet<? extends R> sortedRows,
+      Comparator<? super K> comparator
+  ) {
+    return RowArrayMap.<K, R>of(
+        sortedRows instanceof RowArraySet<?> ? ((RowArraySet<?>) sortedRows).getSortedArray() : sortedRows.toArray(),
+        comparator
+    );
+  }
+
+  /**
+   * Indexes rows by key.  When the rows are already sorted by key, as when their
+   * natural ordering is by key, the array of rows is shared and must not be modified.
+   * Otherwise, such as when rows are ordered by other columns, the rows are copied
+   * then sorted by key.
+   *
+   * @param  rows        the rows, typically in the same order as {@code comparator}
+   * @param  comparator  the key comparator or {@code null} for natural ordering
+   */
+  static <K extends Comparable<? super K>, R extends Row<K, ?>> RowArrayMap<K, R> of(
+      Object[] rows,
+      Comparator<? super K> comparator
+  ) {
+    Object[] keys = RowArrayMap.<K, R>keys(rows);
+    for (int i = 1; i < keys.length; i++) {
+      @SuppressWarnings("unchecked")
+      K key = (K) keys[i];
+      if (compare(comparator, keys[i - 1], key) >= 0) {
+        rows = rows.clone();
+        Arrays.sort(rows, RowArrayMap.<K, R>keyOrder(comparator));
+        keys = RowArrayMap.<K, R>keys(rows);
+        break;
+      }
+    }
+    return new RowArrayMap<>(keys, rows, comparator, 0, rows.length, false);
+  }
+
+  private static <K extends Comparable<? super K>, R extends Row<K, ?>> Object[] keys(Object[] rows) {
+    Object[] keys = new Object[rows.length];
+    for (int i = 0; i < rows.length; i++) {
+      @SuppressWarnings("unchecked")
+      R row = (R) rows[i];
+      keys[i] = row.getKey();
+    }
+    return keys;
+  }
+
+  /**
+   * Creates a new map with rows removed and inserted, leaving this map unchanged.
+   * The positions of all changes are found by binary search, so only O(k log n)
+   * keys are compared, then the arrays are copied once in blocks between changes.
+   * Only called on a map that is not a range view.
+   *
+   * @param  removedKeys   the keys of the rows to remove, exactly as in this map
+   * @param  insertedKeys  the keys of the rows to insert, sorted and distinct,
+   *                       none of which match a key remaining in this map
+   * @param  insertedRows  the rows to insert, in the same order as {@code insertedKeys}
+   */
+  RowArrayMap<K, R> patch(Collection<?> removedKeys, Object[] insertedKeys, Object[] insertedRows) {
+    assert from == 0 && to == rows.length && !descending;
+    assert insertedKeys.length == insertedRows.length;
+    int size = rows.length;
+    boolean[] removed = new boolean[size];
+    int removedCount = 0;
+    for (Object key : removedKeys) {
+      int index = search(key);
+      if (index >= 0 && !removed[index]) {
+        removed[index] = true;
+        removedCount++;
+      }
+    }
+    int newSize = size - removedCount + insertedKeys.length;
+    Object[] newKeys = new Object[newSize];
+    Object[] newRows = new Object[newSize];
+    int src = 0;
+    int dest = 0;
+    for (int i = 0; i <= insertedKeys.length; i++) {
+      int end;
+      if (i < insertedKeys.length) {
+        int index = search(insertedKeys[i]);
+        end = index >= 0 ? index : (-index - 1);
+      } else {
+        end = size;
+      }
+      // Copies runs of rows up to the insertion point, skipping removed rows
+      while (src < end) {
+        if (removed[src]) {
+          src++;
+        } else {
+          int runEnd = src + 1;
+          while (runEnd < end && !removed[runEnd]) {
+            runEnd++;
+          }
+          int len = runEnd - src;
+          System.arraycopy(keys, src, newKeys, dest, len);
+          System.arraycopy(rows, src, newRows, dest, len);
+          dest += len;
+          src = runEnd;
+        }
+      }
+      if (i < insertedKeys.length) {
+        newKeys[dest] = insertedKeys[i];
+        newRows[dest] = insertedRows[i];
+        dest++;
+      }
+    }
+    assert dest == newSize;
+    return new RowArrayMap<>(newKeys, newRows, comparator, 0, newSize, false);
+  }
+
+  @SuppressWarnings("unchecked")
+  private K key(int index) {
+    return (K) keys[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  private R row(int index) {
+    return (R) rows[index];
+  }
+
+  private Map.Entry<K, R> entry(int index) {
+    return (index < from || index >= to) ? null : new AbstractMap.SimpleImmutableEntry<>(key(index), row(index));
+  }
+
+  private K keyOrNull(int index) {
+    return (index < from || index >= to) ? null : key(index);
+  }
+
+  private int compare(Object key1, K key2) {
+    return compare(comparator, key1, key2);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K> int compare(Comparator<? super K> comparator, Object key1, K key2) {
+    return comparator == null
+        ? ((Comparable<? super K>) key1).compareTo(key2)
+        : comparator.compare((K) key1, key2);
+  }
+
+  /**
+   * Searches for a key within this view.
+   *
+   * @return  the index when found, otherwise {@code (-(insertion point) - 1)}
+   */
+  @SuppressWarnings("unchecked")
+  private int search(Object key) {
+    Objects.requireNonNull(key);
+    return Arrays.binarySearch(keys, from, to, key, (Comparator<Object>) comparator);
+  }
+
+  /**
+   * The index of the first key greater than, or equal to when inclusive, the given key.
+   *
+   * @return  the index or {@code to} when none
+   */
+  private int ceilingIndex(Object key, boolean inclusive) {
+    int index = search(key);
+    return index >= 0 ? (inclusive ? index : index + 1) : (-index - 1);
+  }
+
+  /**
+   * The index of the last key less than, or equal to when inclusive, the given key.
+   *
+   * @return  the index or {@code from - 1} when none
+   */
+  private int floorIndex(Object key, boolean inclusive) {
+    int index = search(key);
+    return index >= 0 ? (inclusive ? index : index - 1) : (-index - 2);
+  }
+
+  /**
+   * The index of the greatest key, in iteration order, strictly less than, or
+   * equal to when inclusive, the given key.
+   */
+  private int lowerIndex(Object key, boolean inclusive) {
+    return descending ? ceilingIndex(key, inclusive) : floorIndex(key, inclusive);
+  }
+
+  /**
+   * The index of the least key, in iteration order, strictly greater than, or
+   * equal to when inclusive, the given key.
+   */
+  private int higherIndex(Object key, boolean inclusive) {
+    return descending ? floorIndex(key, inclusive) : ceilingIndex(key, inclusive);
+  }
+
+  private int firstIndex() {
+    return descending ? (to - 1) : from;
+  }
+
+  private int lastIndex() {
+    return descending ? from : (to - 1);
+  }
+
+  /**
+   * Creates a view of a range of indexes, clamped to this view.
+   */
+  private RowArrayMap<K, R> range(int newFrom, int newTo) {
+    newFrom = Math.max(newFrom, from);
+    newTo = Math.max(newFrom, Math.min(newTo, to));
+    return (newFrom == from && newTo == to) ? this : new RowArrayMap<>(keys, rows, comparator, newFrom, newTo, descending);
+  }
+
+  // <editor-fold desc="Map">
+  @Override
+  public int size() {
+    return to - from;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return from == to;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key != null && search(key) >= 0;
+  }
+
+  @Override
+  public R get(Object key) {
+    if (key == null) {
+      return null;
+    }
+    int index = search(key);
+    return index >= 0 ? row(index) : null;
+  }
+
+  @Override
+  public R put(K key, R value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public R remove(Object key) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends R> m) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public NavigableSet<K> keySet() {
+    return navigableKeySet();
+  }
+
+  @Override
+  public Collection<R> values() {
+    return new AbstractCollection<R>() {
+      @Override
+      public Iterator<R> iterator() {
+        return new IndexIterator<R>() {
+          @Override
+          R get(int index) {
+            return row(index);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return RowArrayMap.this.size();
+      }
+    };
+  }
+
+  @Override
+  public Set<Map.Entry<K, R>> entrySet() {
+    return new AbstractSet<Map.Entry<K, R>>() {
+      @Override
+      public Iterator<Map.Entry<K, R>> iterator() {
+        return new IndexIterator<Map.Entry<K, R>>() {
+          @Override
+          Map.Entry<K, R> get(int index) {
+            return entry(index);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return RowArrayMap.this.size();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        if (!(o instanceof Map.Entry<?, ?>)) {
+          return false;
+        }
+        Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+        Object key = e.getKey();
+        if (key == null) {
+          return false;
+        }
+        int index = search(key);
+        return index >= 0 && row(index).equals(e.getValue());
+      }
+    };
+  }
+  // </editor-fold>
+
+  // <editor-fold desc="SortedMap">
+  @Override
+  public Comparator<? super K> comparator() {
+    return descending ? Collections.reverseOrder(comparator) : comparator;
+  }
+
+  @Override
+  public K firstKey() throws NoSuchElementException {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return key(firstIndex());
+  }
+
+  @Override
+  public K lastKey() throws NoSuchElementException {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return key(lastIndex());
+  }
+
+  @Override
+  public RowArrayMap<K, R> subMap(K fromKey, K toKey) {
+    return subMap(fromKey, true, toKey, false);
+  }
+
+  @Override
+  public RowArrayMap<K, R> headMap(K toKey) {
+    return headMap(toKey, false);
+  }
+
+  @Override
+  public RowArrayMap<K, R> tailMap(K fromKey) {
+    return tailMap(fromKey, true);
+  }
+  // </editor-fold>
+
+  // <editor-fold desc="NavigableMap">
+  @Override
+  public Map.Entry<K, R> lowerEntry(K key) {
+    return entry(lowerIndex(key, false));
+  }
+
+  @Override
+  public K lowerKey(K key) {
+    return keyOrNull(lowerIndex(key, false));
+  }
+
+  @Override
+  public Map.Entry<K, R> floorEntry(K key) {
+    return entry(lowerIndex(key, true));
+  }
+
+  @Override
+  public K floorKey(K key) {
+    return keyOrNull(lowerIndex(key, true));
+  }
+
+  @Override
+  public Map.Entry<K, R> ceilingEntry(K key) {
+    return entry(higherIndex(key, true));
+  }
+
+  @Override
+  public K ceilingKey(K key) {
+    return keyOrNull(higherIndex(key, true));
+  }
+
+  @Override
+  public Map.Entry<K, R> higherEntry(K key) {
+    return entry(higherIndex(key, false));
+  }
+
+  @Override
+  public K higherKey(K key) {
+    return keyOrNull(higherIndex(key, false));
+  }
+
+  @Override
+  public Map.Entry<K, R> firstEntry() {
+    return entry(firstIndex());
+  }
+
+  @Override
+  public Map.Entry<K, R> lastEntry() {
+    return entry(lastIndex());
+  }
+
+  @Override
+  public Map.Entry<K, R> pollFirstEntry() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Map.Entry<K, R> pollLastEntry() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public RowArrayMap<K, R> descendingMap() {
+    return new RowArrayMap<>(keys, rows, comparator, from, to, !descending);
+  }
+
+  @Override
+  public NavigableSet<K> navigableKeySet() {
+    return new KeySet();
+  }
+
+  @Override
+  public NavigableSet<K> descendingKeySet() {
+    return descendingMap().navigableKeySet();
+  }
+
+  @Override
+  public RowArrayMap<K, R> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+    int c = compare(fromKey, toKey);
+    if (descending ? c < 0 : c > 0) {
+      throw new IllegalArgumentException("fromKey > toKey");
+    }
+    if (descending) {
+      return range(ceilingIndex(toKey, toInclusive), floorIndex(fromKey, fromInclusive) + 1);
+    } else {
+      return range(ceilingIndex(fromKey, fromInclusive), floorIndex(toKey, toInclusive) + 1);
+    }
+  }
+
+  @Override
+  public RowArrayMap<K, R> headMap(K toKey, boolean inclusive) {
+    return descending
+        ? range(ceilingIndex(toKey, inclusive), to)
+        : range(from, floorIndex(toKey, inclusive) + 1);
+  }
+
+  @Override
+  public RowArrayMap<K, R> tailMap(K fromKey, boolean inclusive) {
+    return descending
+        ? range(from, floorIndex(fromKey, inclusive) + 1)
+        : range(ceilingIndex(fromKey, inclusive), to);
+  }
+  // </editor-fold>
+
+  /**
+   * Iterates the indexes of this view in iteration order.
+   */
+  private abstract class IndexIterator<E> implements Iterator<E> {
+
+    private int next = firstIndex();
+
+    abstract E get(int index);
+
+    @Override
+    public boolean hasNext() {
+      return next >= from && next < to;
+    }
+
+    @Override
+    public E next() throws NoSuchElementException {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      E e = get(next);
+      next += descending ? -1 : 1;
+      return e;
+    }
+  }
+
+  /**
+   * The keys of this view.
+   */
+  private class KeySet extends AbstractSet<K> implements NavigableSet<K> {
+
+    @Override
+    public Iterator<K> iterator() {
+      return new IndexIterator<K>() {
+        @Override
+        K get(int index) {
+          return key(index);
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return RowArrayMap.this.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+      return RowArrayMap.this.comparator();
+    }
+
+    @Override
+    public K first() {
+      return firstKey();
+    }
+
+    @Override
+    public K last() {
+      return lastKey();
+    }
+
+    @Override
+    public K lower(K e) {
+      return lowerKey(e);
+    }
+
+    @Override
+    public K floor(K e) {
+      return floorKey(e);
+    }
+
+    @Override
+    public K ceiling(K e) {
+      return ceilingKey(e);
+    }
+
+    @Override
+    public K higher(K e) {
+      return higherKey(e);
+    }
+
+    @Override
+    public K pollFirst() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public K pollLast() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NavigableSet<K> descendingSet() {
+      return descendingKeySet();
+    }
+
+    @Override
+    public Iterator<K> descendingIterator() {
+      return descendingKeySet().iterator();
+    }
+
+    @Override
+    public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+      return subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+      return headMap(toElement, inclusive).navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+      return tailMap(fromElement, inclusive).navigableKeySet();
+    }
+
+    @Override
+    public SortedSet<K> subSet(K fromElement, K toElement) {
+      return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> headSet(K toElement) {
+      return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<K> tailSet(K fromElement) {
+      return tailSet(fromElement, true);
+    }
+  }
+}
@@ -0,0 +1,423 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * An immutable set of rows in their natural ordering, stored in a sorted array.
+ * Compared to an unmodifiable {@link java.util.TreeSet}, there is no node per
+ * row, iteration is sequential through the array, and {@link #contains(java.lang.Object)}
+ * is a binary search.  Range views share the array of the set they were created
+ * from.  Spliterators split the array evenly, for balanced parallel streams.
+ */
+final class RowArraySet<E> extends AbstractSet<E> implements SortedSet<E> {
+
+  /**
+   * Compares rows in their natural ordering.
+   */
+  @SuppressWarnings("unchecked")
+  private static final Comparator<Object> naturalOrder = (o1, o2) -> ((Comparable<Object>) o1).compareTo(o2);
+
+  private static final RowArraySet<?> EMPTY = new RowArraySet<>(new Object[0], 0, 0);
+
+  private final Object[] elements;
+
+  /**
+   * The range of indexes in this view, from inclusive to exclusive.
+   */
+  private final int from;
+  private final int to;
+
+  /**
+   * A row along with its precomputed sort key.
+   */
+  private static final class Keyed {
+    private final Comparable<Object> sortKey;
+    private final Object row;
+
+    @SuppressWarnings("unchecked")
+    private Keyed(Comparable<?> sortKey, Object row) {
+      this.sortKey = (Comparable<Object>) sortKey;
+      this.row = row;
+    }
+  }
+
+  private static final Comparator<Keyed> sortKeyOrder = (k1, k2) -> k1.sortKey.compareTo(k2.sortKey);
+
+  private RowArraySet(Object[] elements, int from, int to) {
+    this.elements = elements;
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Gets the empty set.
+   */
+  @SuppressWarnings("unchecked")
+  static <E> RowArraySet<E> empty() {
+    return (RowArraySet<E>) EMPTY;
+  }
+
+  /**
+   * Wraps rows that are already distinct and in their natural ordering.
+   *
+   * @param  sorted  the rows, which must not be modified
+   */
+  static <E> RowArraySet<E> ofSorted(Object[] sorted) {
+    return new RowArraySet<>(sorted, 0, sorted.length);
+  }
+
+  /**
+   * Sorts rows into a new set, optionally in parallel.  As with {@link java.util.TreeSet},
+   * only the first of any rows that compare as equal is kept.
+   *
+   * @param  sortKey       computes the sort key of each row, which compare in the natural ordering of the rows,
+   *                       or {@code null} to sort by the rows directly
+   * @param  parallelPool  the pool to sort within by {@link Arrays#parallelSort(java.lang.Object[], java.util.Comparator)},
+   *                       or {@code null} to sort on the current thread
+   */
+  static <E> RowArraySet<E> of(
+      Collection<? extends E> unsortedRows,
+      Function<Object, ? extends Comparable<?>> sortKey,
+      ForkJoinPool parallelPool
+  ) {
+    Object[] rows = unsortedRows.toArray();
+    return sortInPlace(rows, rows.length, sortKey, parallelPool);
+  }
+
+  /**
+   * Sorts the leading elements of an array of rows in place, optionally in parallel, keeping all rows,
+   * then creates a set of the distinct rows.  As with {@link java.util.TreeSet}, only the first of any
+   * rows that compare as equal is in the set.  When the array contains exactly the distinct rows, it is
+   * shared by the set and must no longer be modified, otherwise the distinct rows are copied.
+   *
+   * @param  rows          the array of rows, which is sorted in place
+   * @param  size          the number of rows at the beginning of the array
+   * @param  sortKey       computes the sort key of each row, which compare in the natural ordering of the rows,
+   *                       or {@code null} to sort by the rows directly
+   * @param  parallelPool  the pool to sort within by {@link Arrays#parallelSort(java.lang.Object[], java.util.Comparator)},
+   *                       or {@code null} to sort on the current thread
+   */
+  @SuppressWarnings("unchecked")
+  static <E> RowArraySet<E> sortInPlace(
+      final Object[] rows,
+      final int size,
+      Function<Object, ? extends Comparable<?>> sortKey,
+      ForkJoinPool parallelPool
+  ) {
+    if (sortKey != null) {
+      return sortBySortKeys(rows, size, sortKey, parallelPool);
+    }
+    if (parallelPool == null) {
+      Arrays.sort(rows, 0, size);
+    } else {
+      // Sorting subtasks are forked within the pool of the thread performing the sort
+      parallelPool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(rows, 0, size, naturalOrder)));
+    }
+    return distinct(rows, size, i -> ((Comparable<Object>) rows[i - 1]).compareTo(rows[i]) == 0);
+  }
+
+  /**
+   * Sorts rows in place by precomputed sort keys, computing the sort key of each row once.
+   */
+  private static <E> RowArraySet<E> sortBySortKeys(
+      Object[] rows,
+      int size,
+      Function<Object, ? extends Comparable<?>> sortKey,
+      ForkJoinPool parallelPool
+  ) {
+    final Keyed[] keyed = new Keyed[size];
+    for (int i = 0; i < size; i++) {
+      keyed[i] = new Keyed(sortKey.apply(rows[i]), rows[i]);
+    }
+    if (parallelPool == null) {
+      Arrays.sort(keyed, sortKeyOrder);
+    } else {
+      parallelPool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(keyed, sortKeyOrder)));
+    }
+    for (int i = 0; i < size; i++) {
+      rows[i] = keyed[i].row;
+    }
+    return distinct(rows, size, i -> keyed[i - 1].sortKey.compareTo(keyed[i].sortKey) == 0);
+  }
+
+  /**
+   * Creates a set of the distinct rows of a sorted array, sharing the array when all of its rows are distinct.
+   *
+   * @param  sameAsPrevious  tests if the row at the given index compares as equal to the row before it
+   */
+  private static <E> RowArraySet<E> distinct(Object[] rows, int size, IntPredicate sameAsPrevious) {
+    int distinct = size;
+    for (int i = 1; i < size; i++) {
+      if (sameAsPrevious.test(i)) {
+        distinct--;
+      }
+    }
+    if (distinct == rows.length) {
+      return new RowArraySet<>(rows, 0, distinct);
+    }
+    Object[] elements = new Object[distinct];
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      if (i == 0 || !sameAsPrevious.test(i)) {
+        elements[j++] = rows[i];
+      }
+    }
+    return new RowArraySet<>(elements, 0, distinct);
+  }
+
+  /**
+   * Creates a new set with rows removed and inserted, leaving this set unchanged.
+   * The inserted rows are sorted then merged with the remaining rows in a single pass.
+   * As with {@link #sortInPlace(java.lang.Object[], int, java.util.function.Function, java.util.concurrent.ForkJoinPool)},
+   * only the first of any rows that compare as equal is kept, preferring the remaining rows.
+   * Only called on a set that is not a range view.
+   *
+   * @param  removedRows   the rows to remove, matched by identity
+   * @param  insertedRows  the rows to insert, which is sorted in place
+   * @param  sortKey       computes the sort key of each row, which compare in the natural ordering of the rows,
+   *                       or {@code null} to sort by the rows directly
+   */
+  @SuppressWarnings("unchecked")
+  RowArraySet<E> patch(
+      Set<?> removedRows,
+      Object[] insertedRows,
+      Function<Object, ? extends Comparable<?>> sortKey
+  ) {
+    assert from == 0 && to == elements.length;
+    RowArraySet<?> inserted = sortInPlace(insertedRows, insertedRows.length, sortKey, null);
+    Object[] insertedSorted = inserted.elements;
+    int insertedSize = inserted.to;
+    Object[] merged = new Object[elements.length + insertedSize];
+    int size = 0;
+    int i = 0;
+    int j = 0;
+    while (i < elements.length || j < insertedSize) {
+      Object element;
+      if (i < elements.length && removedRows.contains(elements[i])) {
+        i++;
+        continue;
+      }
+      if (j == insertedSize) {
+        element = elements[i++];
+      } else if (i == elements.length) {
+        element = insertedSorted[j++];
+      } else {
+        int diff = ((Comparable<Object>) elements[i]).compareTo(insertedSorted[j]);
+        if (diff < 0) {
+          element = elements[i++];
+        } else if (diff > 0) {
+          element = insertedSorted[j++];
+        } else {
+          element = elements[i++];
+          j++;
+        }
+      }
+      merged[size++] = element;
+    }
+    return new RowArraySet<>(size == merged.length ? merged : Arrays.copyOf(merged, size), 0, size);
+  }
+
+  /**
+   * Gets the sorted array of this set.  The array is shared when this set is
+   * not a range view and must not be modified.
+   */
+  Object[] getSortedArray() {
+    return (from == 0 && to == elements.length) ? elements : Arrays.copyOfRange(elements, from, to);
+  }
+
+  @SuppressWarnings("unchecked")
+  private E element(int index) {
+    return (E) elements[index];
+  }
+
+  /**
+   * Searches for an element within this view.
+   *
+   * @return  the index when found, otherwise {@code (-(insertion point) - 1)}
+   */
+  private int search(Object o) {
+    return Arrays.binarySearch(elements, from, to, o);
+  }
+
+  /**
+   * The index of the first element greater than or equal to the given element.
+   */
+  private int ceilingIndex(Object o) {
+    int index = search(o);
+    return index >= 0 ? index : (-index - 1);
+  }
+
+  /**
+   * Creates a view of a range of indexes, clamped to this view.
+   */
+  private RowArraySet<E> range(int newFrom, int newTo) {
+    newFrom = Math.max(newFrom, from);
+    newTo = Math.max(newFrom, Math.min(newTo, to));
+    return (newFrom == from && newTo == to) ? this : new RowArraySet<>(elements, newFrom, newTo);
+  }
+
+  @Override
+  public int size() {
+    return to - from;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return from == to;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o != null && search(o) >= 0;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int next = from;
+
+      @Override
+      public boolean hasNext() {
+        return next < to;
+      }
+
+      @Override
+      public E next() throws NoSuchElementException {
+        if (next >= to) {
+          throw new NoSuchElementException();
+        }
+        return element(next++);
+      }
+    };
+  }
+
+  /**
+   * Splits the array by halves, reporting the set as sized, sorted, distinct,
+   * and immutable.
+   */
+  @Override
+  public Spliterator<E> spliterator() {
+    return Spliterators.spliterator(
+        elements,
+        from,
+        to,
+        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE
+    );
+  }
+
+  @Override
+  public Object[] toArray() {
+    return Arrays.copyOfRange(elements, from, to);
+  }
+
+  @Override
+  public boolean add(E e) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Rows are sorted in their natural ordering.
+   *
+   * @return  {@code null}
+   */
+  @Override
+  public Comparator<? super E> comparator() {
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public RowArraySet<E> subSet(E fromElement, E toElement) {
+    if (((Comparable<? super E>) fromElement).compareTo(toElement) > 0) {
+      throw new IllegalArgumentException("fromElement > toElement");
+    }
+    return range(ceilingIndex(fromElement), ceilingIndex(toElement));
+  }
+
+  @Override
+  public RowArraySet<E> headSet(E toElement) {
+    return range(from, ceilingIndex(toElement));
+  }
+
+  @Override
+  public RowArraySet<E> tailSet(E fromElement) {
+    return range(ceilingIndex(fromElement), to);
+  }
+
+  @Override
+  public E first() throws NoSuchElementException {
+    if (from == to) {
+      throw new NoSuchElementException();
+    }
+    return element(from);
+  }
+
+  @Override
+  public E last() throws NoSuchElementException {
+    if (from == to) {
+      throw new NoSuchElementException();
+    }
+    return element(to - 1);
+  }
+}
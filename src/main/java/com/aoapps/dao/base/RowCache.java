@@ -0,0 +1,301 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches individual rows along with rows known to not exist.
+ * <ul>
+ *   <li>When unbounded, rows are stored in a single map, which is a {@link ConcurrentHashMap} when concurrent</li>
+ *   <li>When bounded, the least recently used rows and misses are evicted separately, each within its own limit.
+ *       Concurrent caches are split into segments, each with its own lock.</li>
+ *   <li>When a time-to-live is set, entries are stored with the time cached and are removed once expired
+ *       upon the next lookup.</li>
+ * </ul>
+ */
+abstract class RowCache<K, R> {
+
+  /**
+   * Returned by {@link #get(java.lang.Object)} for a row known to not exist.
+   */
+  static final Object NO_ROW = new Object();
+
+  /**
+   * A time-to-live that never expires.
+   */
+  static final long NO_TTL = Long.MAX_VALUE;
+
+  /**
+   * The number of segments for a concurrent, bounded cache.
+   */
+  private static final int CONCURRENT_SEGMENTS = 16;
+
+  /**
+   * Creates a new row cache.
+   *
+   * @param  concurrent  Will the cache be used by multiple threads concurrently?
+   * @param  maxRows     The maximum number of rows, or {@link Integer#MAX_VALUE} for unbounded
+   * @param  maxMisses   The maximum number of rows known to not exist, or {@link Integer#MAX_VALUE} for unbounded
+   * @param  rowTtlNanos   The nanoseconds rows are cached, or {@link #NO_TTL} to never expire
+   * @param  missTtlNanos  The nanoseconds rows known to not exist are cached, or {@link #NO_TTL} to never expire
+   */
+  static <K, R> RowCache<K, R> newInstance(
+      boolean concurrent,
+      int maxRows,
+      int maxMisses,
+      long rowTtlNanos,
+      long missTtlNanos,
+      CacheStats stats
+  ) {
+    if (maxRows < 0) {
+      throw new IllegalArgumentException("maxRows < 0: " + maxRows);
+    }
+    if (maxMisses < 0) {
+      throw new IllegalArgumentException("maxMisses < 0: " + maxMisses);
+    }
+    if (rowTtlNanos <= 0) {
+      throw new IllegalArgumentException("rowTtlNanos <= 0: " + rowTtlNanos);
+    }
+    if (missTtlNanos <= 0) {
+      throw new IllegalArgumentException("missTtlNanos <= 0: " + missTtlNanos);
+    }
+    if (maxRows == Integer.MAX_VALUE && maxMisses == Integer.MAX_VALUE) {
+      return new Unbounded<>(concurrent ? new ConcurrentHashMap<>() : new HashMap<>(), rowTtlNanos, missTtlNanos, stats);
+    }
+    if (concurrent) {
+      int segments = Math.max(1, Math.min(CONCURRENT_SEGMENTS, Math.min(maxRows, maxMisses)));
+      return new Bounded<>(segments, maxRows, maxMisses, rowTtlNanos, missTtlNanos, stats);
+    }
+    return new Bounded<>(1, maxRows, maxMisses, rowTtlNanos, missTtlNanos, stats);
+  }
+
+  /**
+   * A cached value along with the time it was cached.
+   */
+  private static final class Expiring {
+    private final Object value;
+    private final long cachedNanos;
+
+    private Expiring(Object value, long cachedNanos) {
+      this.value = value;
+      this.cachedNanos = cachedNanos;
+    }
+  }
+
+  private final long rowTtlNanos;
+  private final long missTtlNanos;
+  final CacheStats stats;
+
+  RowCache(long rowTtlNanos, long missTtlNanos, CacheStats stats) {
+    this.rowTtlNanos = rowTtlNanos;
+    this.missTtlNanos = missTtlNanos;
+    this.stats = stats;
+  }
+
+  /**
+   * Gets a cached row.  Expired entries are removed and not returned.
+   *
+   * @return  the row, {@link #NO_ROW} when known to not exist, or {@code null} when not cached
+   */
+  final Object get(K canonicalKey) {
+    Object stored = getStored(canonicalKey);
+    if (stored instanceof Expiring) {
+      Expiring expiring = (Expiring) stored;
+      Object value = expiring.value;
+      long ttlNanos = (value == NO_ROW) ? missTtlNanos : rowTtlNanos;
+      if ((System.nanoTime() - expiring.cachedNanos) >= ttlNanos) {
+        if (removeStored(canonicalKey, stored)) {
+          stats.expirations.increment();
+        }
+        return null;
+      }
+      return value;
+    }
+    return stored;
+  }
+
+  /**
+   * Caches a row.
+   */
+  final void put(K canonicalKey, R row) {
+    putStored(canonicalKey, rowTtlNanos == NO_TTL ? row : new Expiring(row, System.nanoTime()), false);
+  }
+
+  /**
+   * Caches that a row does not exist.
+   */
+  final void putMiss(K canonicalKey) {
+    putStored(canonicalKey, missTtlNanos == NO_TTL ? NO_ROW : new Expiring(NO_ROW, System.nanoTime()), true);
+  }
+
+  /**
+   * Gets the value as stored, which may be {@link Expiring}.
+   */
+  abstract Object getStored(K canonicalKey);
+
+  /**
+   * Stores a value, which may be {@link Expiring}.
+   *
+   * @param  isMiss  is the value a miss, possibly wrapped in {@link Expiring}?
+   */
+  abstract void putStored(K canonicalKey, Object stored, boolean isMiss);
+
+  /**
+   * Removes a stored value, only when still the given value.
+   *
+   * @return  {@code true} when removed
+   */
+  abstract boolean removeStored(K canonicalKey, Object stored);
+
+  /**
+   * Stores rows and misses in a single unbounded map.
+   */
+  private static final class Unbounded<K, R> extends RowCache<K, R> {
+
+    private final Map<K, Object> map;
+
+    private Unbounded(Map<K, Object> map, long rowTtlNanos, long missTtlNanos, CacheStats stats) {
+      super(rowTtlNanos, missTtlNanos, stats);
+      this.map = map;
+    }
+
+    @Override
+    Object getStored(K canonicalKey) {
+      return map.get(canonicalKey);
+    }
+
+    @Override
+    void putStored(K canonicalKey, Object stored, boolean isMiss) {
+      map.put(canonicalKey, stored);
+    }
+
+    @Override
+    boolean removeStored(K canonicalKey, Object stored) {
+      return map.remove(canonicalKey, stored);
+    }
+  }
+
+  /**
+   * An access-ordered map that evicts its least recently used entry beyond a maximum size.
+   */
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    @SuppressWarnings("serial")
+    private final LongAdder evictions;
+
+    private LruMap(int maxSize, LongAdder evictions) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+      this.evictions = evictions;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      if (size() > maxSize) {
+        evictions.increment();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Segments rows by key hash, each segment evicting its least recently used
+   * rows and misses separately.
+   */
+  private static final class Bounded<K, R> extends RowCache<K, R> {
+
+    private static final class Segment<K> {
+      private final LruMap<K, Object> rows;
+      private final LruMap<K, Object> misses;
+
+      private Segment(int maxRows, int maxMisses, LongAdder evictions) {
+        rows = new LruMap<>(maxRows, evictions);
+        misses = new LruMap<>(maxMisses, evictions);
+      }
+    }
+
+    private final Segment<K>[] segments;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Bounded(int numSegments, int maxRows, int maxMisses, long rowTtlNanos, long missTtlNanos, CacheStats stats) {
+      super(rowTtlNanos, missTtlNanos, stats);
+      segments = new Segment[numSegments];
+      // Round up so the total is at least the maximum, unless unbounded
+      int segmentRows = maxRows == Integer.MAX_VALUE ? maxRows : (int) (((long) maxRows + numSegments - 1) / numSegments);
+      int segmentMisses = maxMisses == Integer.MAX_VALUE ? maxMisses : (int) (((long) maxMisses + numSegments - 1) / numSegments);
+      for (int i = 0; i < numSegments; i++) {
+        segments[i] = new Segment<>(segmentRows, segmentMisses, stats.evictions);
+      }
+    }
+
+    private Segment<K> getSegment(K canonicalKey) {
+      int hash = canonicalKey.hashCode();
+      return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    @Override
+    Object getStored(K canonicalKey) {
+      Segment<K> segment = getSegment(canonicalKey);
+      synchronized (segment) {
+        Object stored = segment.rows.get(canonicalKey);
+        if (stored != null) {
+          return stored;
+        }
+        return segment.misses.get(canonicalKey);
+      }
+    }
+
+    @Override
+    void putStored(K canonicalKey, Object stored, boolean isMiss) {
+      Segment<K> segment = getSegment(canonicalKey);
+      synchronized (segment) {
+        if (isMiss) {
+          segment.rows.remove(canonicalKey);
+          segment.misses.put(canonicalKey, stored);
+        } else {
+          segment.misses.remove(canonicalKey);
+          segment.rows.put(canonicalKey, stored);
+        }
+      }
+    }
+
+    @Override
+    boolean removeStored(K canonicalKey, Object stored) {
+      Segment<K> segment = getSegment(canonicalKey);
+      synchronized (segment) {
+        return segment.rows.remove(canonicalKey, stored) || segment.misses.remove(canonicalKey, stored);
+      }
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2011, 2012, 2013, 2014, 2015, 2016, 2019, 2020, 2021, 2022, 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2011, 2012, 2013, 2014, 2015, 2016, 2019, 2020, 2021, 2022, 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,40 +27,318 @@ import com.aoapps.dao.Model;
 import com.aoapps.dao.Row;
 import com.aoapps.dbc.NoRowException;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
- * Caches results on a per-row basis.
+ * Caches results on a per-row basis, within the {@linkplain CacheScope current scope}.
+ * When {@linkplain #isSharedCache() shared}, the rows are cached once for all
+ * threads instead of per-thread, and {@link #tableUpdated()} is seen by all threads.
+ *
+ * <p>The row cache is unbounded by default.  It may be bounded by
+ * {@link #getMaxCachedRows()} and {@link #getMaxCachedMisses()}, in which case
+ * the least recently used entries are evicted.</p>
+ *
+ * <p>Cached rows and misses never expire by default.  They may expire after
+ * {@link #getCachedRowTtl()} and {@link #getCachedMissTtl()}, in which case
+ * they are queried again upon next use.  This allows caching tables that are
+ * not notified by {@link #tableUpdated()}.</p>
+ *
+ * <p>When shared, concurrent misses may be coalesced into batches by {@link #getBatchWindow()},
+ * queried together by {@link #getNoCache(java.util.Collection)}.</p>
  */
 public abstract class RowCacheTable<
     K extends Comparable<? super K>,
     R extends Row<K, ?>
     > extends AbstractTable<K, R> {
 
-  protected final ThreadLocal<Set<? extends R>> unsortedRowsCache = new ThreadLocal<>();
+  /**
+   * The caches of a single {@link CacheScope}.
+   */
+  private static final class ScopedCache<K, R> {
+    private Set<? extends R> unsortedRows;
+    private SortedSet<? extends R> sortedRows;
+    private RowArrayMap<K, R> sortedRowMap;
+
+    /**
+     * Indexes all rows by canonical key once all rows are loaded.
+     */
+    private RowIndex<K, R> allRows;
+
+    private long allRowsLoadedNanos;
+    private long allRowsTtlNanos;
+
+    /**
+     * Created upon first use.
+     */
+    private RowCache<K, R> rowCache;
+  }
+
+  /**
+   * The unsorted rows when all rows are cached, or {@code null} when not loaded.
+   *
+   * @deprecated  Rows are now cached within the {@linkplain CacheScope current scope}, or for all threads when
+   *              {@linkplain #isSharedCache() shared}, instead of per thread.  This is only a view of those caches,
+   *              on which only {@code null} may be set.  Use {@link #getUnsortedRows()} or {@link #clearCaches()} instead.
+   */
+  @Deprecated(forRemoval = true)
+  protected final ThreadLocal<Set<? extends R>> unsortedRowsCache = new UnsortedRowsCache<>(
+      this::getCachedUnsortedRows,
+      this::clearCaches0
+  );
+
+  private final BatchLoader<K, R> batchLoader = new BatchLoader<>(canonicalKeys -> getNoCache(canonicalKeys), cacheStats);
 
-  private final ThreadLocal<SortedSet<? extends R>> sortedRowsCache = new ThreadLocal<>();
+  /**
+   * The snapshot of all rows when {@linkplain #isSharedCache() shared}.
+   */
+  private final SharedCache<TableSnapshot<K, R>> sharedSnapshot = new SharedCache<>(
+      this::loadSharedSnapshot,
+      () -> toNanos(getCachedRowTtl())
+  );
 
-  private final ThreadLocal<Map<K, R>> rowCache = ThreadLocal.withInitial(HashMap::new);
+  /**
+   * The individual rows when {@linkplain #isSharedCache() shared}, discarded on each {@link #tableUpdated()}.
+   * Created upon first use.
+   */
+  private final AtomicReference<RowCache<K, R>> sharedRowCache = new AtomicReference<>();
 
   protected RowCacheTable(Class<K> keyClass, Class<R> rowClass, Model model) {
     super(keyClass, rowClass, model);
   }
 
+  /**
+   * Is the cache shared by all threads?  When shared, rows are cached once for
+   * all threads until the next {@link #tableUpdated()}, instead of being
+   * queried separately by each {@link CacheScope}.
+   *
+   * <p>Must consistently return the same value for the lifetime of this table.</p>
+   *
+   * <p>This default implementation returns {@code false}, caching per-scope.</p>
+   */
+  protected boolean isSharedCache() {
+    return false;
+  }
+
+  /**
+   * Gets the maximum number of individual rows cached per scope, or once when
+   * {@linkplain #isSharedCache() shared}.  The least recently used rows are
+   * evicted beyond this limit.  Does not limit the rows cached by
+   * {@link #getUnsortedRows()}.
+   *
+   * <p>Must consistently return the same value for the lifetime of this table.</p>
+   *
+   * <p>This default implementation returns {@link Integer#MAX_VALUE}, which is unbounded.</p>
+   */
+  protected int getMaxCachedRows() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Gets the maximum number of rows known to not exist that are cached per
+   * scope, or once when {@linkplain #isSharedCache() shared}.  These are
+   * limited separately from {@linkplain #getMaxCachedRows() the cached rows},
+   * so probing for many missing keys does not evict existing rows.
+   *
+   * <p>Must consistently return the same value for the lifetime of this table.</p>
+   *
+   * <p>This default implementation returns {@link Integer#MAX_VALUE}, which is unbounded.</p>
+   */
+  protected int getMaxCachedMisses() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Gets how long rows are cached, including all rows loaded by {@link #getUnsortedRows()}.
+   * Once expired, rows are queried again upon next use.
+   *
+   * <p>Must consistently return the same value for the lifetime of this table.</p>
+   *
+   * <p>This default implementation returns {@code null}, which never expires.</p>
+   */
+  protected Duration getCachedRowTtl() {
+    return null;
+  }
+
+  /**
+   * Gets how long rows known to not exist are cached.  Once expired, rows are
+   * queried again upon next use.  Misses are not cached after all rows have
+   * been loaded, so this is only used with {@link #getNoCacheOptional(java.lang.Comparable)}.
+   *
+   * <p>Must consistently return the same value for the lifetime of this table.</p>
+   *
+   * <p>This default implementation returns {@code null}, which never expires.</p>
+   */
+  protected Duration getCachedMissTtl() {
+    return null;
+  }
+
+  /**
+   * Gets how long a single-row miss waits for other concurrent misses to be
+   * queried together in one batch by {@link #getNoCache(java.util.Collection)}.
+   * Each batch is queried once this window has elapsed or
+   * {@link #getMaxBatchSize()} is reached, whichever is first.
+   * Batching only applies when {@linkplain #isSharedCache() shared}, since a batch is
+   * queried by a single thread for the keys of all threads, which would not keep
+   * the queries of each {@linkplain CacheScope scope} separate.
+   *
+   * <p>This default implementation returns {@code null}, which queries each
+   * miss immediately by {@link #getNoCacheOptional(java.lang.Comparable)},
+   * as is always done when not shared.</p>
+   *
+   * @see  CacheStats#getBatches()
+   * @see  CacheStats#getBatchedKeys()
+   * @see  CacheStats#getBatchWaitNanos()
+   */
+  protected Duration getBatchWindow() {
+    return null;
+  }
+
+  /**
+   * Gets the number of keys that causes a batch to be queried before
+   * {@linkplain #getBatchWindow() its window} has elapsed.
+   *
+   * <p>This default implementation returns {@code 100}.</p>
+   */
+  protected int getMaxBatchSize() {
+    return 100;
+  }
+
+  /**
+   * Queries a single row, batched with other concurrent misses when enabled and {@linkplain #isSharedCache() shared}.
+   */
+  private R getNoCacheBatched(K canonicalKey) throws SQLException {
+    Duration window = isSharedCache() ? getBatchWindow() : null;
+    if (window == null) {
+      return getNoCacheOptional(canonicalKey).orElse(null);
+    }
+    return batchLoader.load(canonicalKey, window.toNanos(), getMaxBatchSize());
+  }
+
+  /**
+   * Converts a time-to-live to nanoseconds.
+   *
+   * @param  ttl  the time-to-live or {@code null} to never expire
+   *
+   * @return  the nanoseconds or {@link RowCache#NO_TTL} to never expire
+   */
+  private static long toNanos(Duration ttl) {
+    if (ttl == null) {
+      return RowCache.NO_TTL;
+    }
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("ttl <= 0: " + ttl);
+    }
+    try {
+      return ttl.toNanos();
+    } catch (ArithmeticException e) {
+      return RowCache.NO_TTL;
+    }
+  }
+
+  private RowCache<K, R> newRowCache(boolean concurrent) {
+    return RowCache.newInstance(
+        concurrent,
+        getMaxCachedRows(),
+        getMaxCachedMisses(),
+        toNanos(getCachedRowTtl()),
+        toNanos(getCachedMissTtl()),
+        cacheStats
+    );
+  }
+
+  private TableSnapshot<K, R> loadSharedSnapshot() throws SQLException {
+    return TableSnapshot.<K, R>load(
+        this,
+        rows -> getRowsNoCache().forEach(rows),
+        0,
+        size -> null,
+        null,
+        this::allRowsLoaded
+    );
+  }
+
+  /**
+   * Gets the caches for the current scope, after discarding all rows once expired.
+   */
+  private ScopedCache<K, R> getScopedCache() {
+    ScopedCache<K, R> scopedCache = CacheScope.getCurrent().getCache(this, ScopedCache::new);
+    expireAllRows(scopedCache);
+    return scopedCache;
+  }
+
+  private void expireAllRows(ScopedCache<K, R> scopedCache) {
+    if (
+        scopedCache.unsortedRows != null
+            && scopedCache.allRowsTtlNanos != RowCache.NO_TTL
+            && (System.nanoTime() - scopedCache.allRowsLoadedNanos) >= scopedCache.allRowsTtlNanos
+    ) {
+      scopedCache.unsortedRows = null;
+      scopedCache.sortedRows = null;
+      scopedCache.sortedRowMap = null;
+      scopedCache.allRows = null;
+      cacheStats.expirations.increment();
+    }
+  }
+
+  private RowCache<K, R> getRowCache(ScopedCache<K, R> scopedCache) {
+    RowCache<K, R> rowCache = scopedCache.rowCache;
+    if (rowCache == null) {
+      rowCache = newRowCache(false);
+      scopedCache.rowCache = rowCache;
+    }
+    return rowCache;
+  }
+
+  private RowCache<K, R> getSharedRowCache() {
+    while (true) {
+      RowCache<K, R> rowCache = sharedRowCache.get();
+      if (rowCache != null) {
+        return rowCache;
+      }
+      rowCache = newRowCache(true);
+      if (sharedRowCache.compareAndSet(null, rowCache)) {
+        return rowCache;
+      }
+    }
+  }
+
+  /**
+   * Gets all rows when already loaded in the current scope or {@linkplain #isSharedCache() shared}.
+   *
+   * @return  the rows or {@code null} when not loaded
+   */
+  protected Set<? extends R> getCachedUnsortedRows() {
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      return snapshot == null ? null : snapshot.getUnsortedRows();
+    }
+    ScopedCache<K, R> cache = CacheScope.getCurrentCacheIfExists(this);
+    if (cache == null) {
+      return null;
+    }
+    expireAllRows(cache);
+    return cache.unsortedRows;
+  }
+
   private void clearCaches0() {
-    unsortedRowsCache.remove();
-    sortedRowsCache.remove();
-    rowCache.remove();
+    CacheScope.removeCurrentCache(this);
   }
 
   /**
-   * Clears all caches for the current thread.
+   * Clears all caches for the current scope.
+   * There are no per-scope caches when {@linkplain #isSharedCache() shared}.
    */
   @Override
   public void clearCaches() {
@@ -69,31 +347,37 @@ public abstract class RowCacheTable<
   }
 
   /**
-   * When the table is updated, all caches are cleared for the current thread.
+   * When the table is updated, all caches are cleared for the current scope.
+   * When {@linkplain #isSharedCache() shared}, the caches are cleared for all threads.
    */
   @Override
   public void tableUpdated() {
-    super.tableUpdated();
     clearCaches0();
+    sharedRowCache.set(null);
+    sharedSnapshot.invalidate();
+    super.tableUpdated();
   }
 
   @Override
   public Set<? extends R> getUnsortedRows() throws SQLException {
-    Set<? extends R> rows = unsortedRowsCache.get();
+    if (isSharedCache()) {
+      return sharedSnapshot.get().getUnsortedRows();
+    }
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    Set<? extends R> rows = scopedCache.unsortedRows;
     if (rows == null) {
-      rows = Collections.unmodifiableSet(getRowsNoCache());
-
-      // Populate rowCache fully
-      Map<K, R> cache = rowCache.get();
-      cache.clear();
-      for (R row : rows) {
-        if (cache.put(canonicalize(row.getKey()), row) != null) {
-          throw new SQLException("Duplicate key: " + row.getKey());
-        }
-      }
+      long loadedNanos = System.nanoTime();
+      rows = loadRows(this::getRowsNoCache);
+
+      // Index all rows, individual rows no longer needed
+      RowIndex<K, R> allRows = newRowIndex(rows, null);
 
       allRowsLoaded(rows);
-      unsortedRowsCache.set(rows);
+      scopedCache.allRows = allRows;
+      scopedCache.allRowsLoadedNanos = loadedNanos;
+      scopedCache.allRowsTtlNanos = toNanos(getCachedRowTtl());
+      scopedCache.rowCache = null;
+      scopedCache.unsortedRows = rows;
     }
     return rows;
   }
@@ -111,55 +395,306 @@ public abstract class RowCacheTable<
 
   @Override
   public SortedSet<? extends R> getRows() throws SQLException {
-    SortedSet<? extends R> rows = sortedRowsCache.get();
+    if (isSharedCache()) {
+      return sharedSnapshot.get().getRows();
+    }
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    SortedSet<? extends R> rows = scopedCache.sortedRows;
     if (rows == null) {
-      rows = Collections.unmodifiableSortedSet(new TreeSet<>(getUnsortedRows()));
-      sortedRowsCache.set(rows);
+      rows = RowArraySet.of(getUnsortedRows(), getRowSortKey(), null);
+      scopedCache.sortedRows = rows;
     }
     return rows;
   }
 
   @Override
-  public R get(final K key) throws NoRowException, SQLException {
+  RowArrayMap<K, R> getSortedRowMap() throws SQLException {
+    if (isSharedCache()) {
+      return sharedSnapshot.get().getSortedRowMap();
+    }
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    RowArrayMap<K, R> sortedRowMap = scopedCache.sortedRowMap;
+    if (sortedRowMap == null) {
+      sortedRowMap = RowArrayMap.of(getRows(), getKeyComparator());
+      scopedCache.sortedRowMap = sortedRowMap;
+    }
+    return sortedRowMap;
+  }
+
+  @Override
+  public R get(K key) throws NoRowException, SQLException {
+    R row = getIfExists(key);
+    if (row == null) {
+      throw new NoRowException(getName() + " not found: " + key);
+    }
+    return row;
+  }
+
+  @Override
+  public Optional<R> getOptional(K key) throws SQLException {
+    return Optional.ofNullable(getIfExists(key));
+  }
+
+  /**
+   * Gets the row for the given key, from the cache when possible.
+   *
+   * @return  the row or {@code null} when not found
+   */
+  @SuppressWarnings("unchecked")
+  R getIfExists(K key) throws SQLException {
     final K canonicalKey = canonicalize(key);
-    Map<K, R> cache = rowCache.get();
-    if (cache.containsKey(canonicalKey)) {
-      R row = cache.get(canonicalKey);
-      if (row == null) {
-        throw new NoRowException(getName() + " not found: " + key);
+    // Doesn't exist when all rows have been loaded
+    final RowCache<K, R> cache;
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      if (snapshot != null) {
+        return countLookup(snapshot.get(canonicalKey));
+      }
+      // Captured before query, so a concurrent tableUpdated() discards the result
+      cache = getSharedRowCache();
+    } else {
+      ScopedCache<K, R> scopedCache = getScopedCache();
+      if (scopedCache.allRows != null) {
+        return countLookup(scopedCache.allRows.get(canonicalKey));
       }
-      return row;
+      cache = getRowCache(scopedCache);
     }
 
-    // Doesn't exist when all rows have been loaded
-    if (unsortedRowsCache.get() != null) {
-      throw new NoRowException(getName() + " not found: " + key);
+    Object cached = cache.get(canonicalKey);
+    if (cached == RowCache.NO_ROW) {
+      cacheStats.negativeHits.increment();
+      return null;
+    }
+    if (cached != null) {
+      cacheStats.hits.increment();
+      return (R) cached;
     }
 
     // Try single row query - cache hits and misses
-    try {
-      R row = getNoCache(canonicalKey);
-      addToCache(canonicalKey, row);
-      return row;
-    } catch (NoRowException err) {
-      cache.put(canonicalKey, null);
-      throw new NoRowException(getName() + " not found: " + key, err);
+    cacheStats.misses.increment();
+    R row = getNoCacheBatched(canonicalKey);
+    if (row == null) {
+      cache.putMiss(canonicalKey);
+    } else {
+      addQueried(cache, canonicalKey, row);
     }
+    return row;
   }
 
-  // TODO: getOptional
+  @Override
+  boolean isCacheScoped() {
+    return !isSharedCache();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  Optional<R> getCachedOptional(K canonicalKey) {
+    final RowCache<K, R> cache;
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      if (snapshot != null) {
+        return Optional.ofNullable(snapshot.get(canonicalKey));
+      }
+      cache = sharedRowCache.get();
+    } else {
+      ScopedCache<K, R> scopedCache = CacheScope.getCurrentCacheIfExists(this);
+      if (scopedCache == null) {
+        return null;
+      }
+      expireAllRows(scopedCache);
+      if (scopedCache.allRows != null) {
+        return Optional.ofNullable(scopedCache.allRows.get(canonicalKey));
+      }
+      cache = scopedCache.rowCache;
+    }
+    Object cached = cache == null ? null : cache.get(canonicalKey);
+    if (cached == null) {
+      return null;
+    }
+    return cached == RowCache.NO_ROW ? Optional.empty() : Optional.of((R) cached);
+  }
+
+  @Override
+  SortedSet<? extends R> getCachedRows() {
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      return snapshot == null ? null : snapshot.getRows();
+    }
+    ScopedCache<K, R> scopedCache = CacheScope.getCurrentCacheIfExists(this);
+    if (scopedCache == null) {
+      return null;
+    }
+    expireAllRows(scopedCache);
+    return scopedCache.sortedRows;
+  }
+
+  /**
+   * Gets the index of all rows when already loaded, {@linkplain #isSharedCache() shared}
+   * or in the current scope.
+   *
+   * @return  the index or {@code null} when not loaded
+   */
+  RowIndex<K, R> getLoadedIndex() {
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      return snapshot == null ? null : snapshot.getIndex();
+    }
+    return getScopedCache().allRows;
+  }
 
   /**
-   * Adds a single object to the cache.
+   * Gets the rows for any number of keys.  Rows are resolved from the cache
+   * when possible, with all remaining rows queried at once by
+   * {@link #getNoCache(java.util.Collection)}.  Both the rows found and
+   * those not found are added to the cache.
+   *
+   * @return  the rows found, keyed by the given keys, in the order of the given keys
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<K, R> getAll(Iterable<? extends K> keys) throws SQLException {
+    // Doesn't exist when all rows have been loaded
+    final RowCache<K, R> cache;
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      if (snapshot != null) {
+        return getAllLoaded(keys, snapshot::get);
+      }
+      // Captured before query, so a concurrent tableUpdated() discards the result
+      cache = getSharedRowCache();
+    } else {
+      ScopedCache<K, R> scopedCache = getScopedCache();
+      if (scopedCache.allRows != null) {
+        return getAllLoaded(keys, scopedCache.allRows::get);
+      }
+      cache = getRowCache(scopedCache);
+    }
+
+    Map<K, R> results = new LinkedHashMap<>();
+    // The canonical key of each key not cached, in order
+    Map<K, K> notCached = null;
+    for (K key : keys) {
+      if (!results.containsKey(key)) {
+        K canonicalKey = canonicalize(key);
+        Object cached = cache.get(canonicalKey);
+        if (cached == RowCache.NO_ROW) {
+          cacheStats.negativeHits.increment();
+        } else if (cached != null) {
+          cacheStats.hits.increment();
+          results.put(key, (R) cached);
+        } else {
+          cacheStats.misses.increment();
+          if (notCached == null) {
+            notCached = new LinkedHashMap<>();
+          }
+          // Placeholder to maintain order
+          results.put(key, null);
+          notCached.put(key, canonicalKey);
+        }
+      }
+    }
+    if (notCached != null) {
+      // Query all at once - cache hits and misses
+      Set<K> canonicalKeys = new LinkedHashSet<>(notCached.values());
+      Map<K, ? extends R> found = getNoCache(Collections.unmodifiableSet(canonicalKeys));
+      for (K canonicalKey : canonicalKeys) {
+        R row = found.get(canonicalKey);
+        if (row == null) {
+          cache.putMiss(canonicalKey);
+        } else {
+          addQueried(cache, canonicalKey, row);
+        }
+      }
+      for (Map.Entry<K, K> entry : notCached.entrySet()) {
+        R row = found.get(entry.getValue());
+        if (row == null) {
+          results.remove(entry.getKey());
+        } else {
+          results.put(entry.getKey(), row);
+        }
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Counts and returns rows looked-up once all rows are loaded.
+   */
+  private Map<K, R> getAllLoaded(Iterable<? extends K> keys, Function<? super K, ? extends R> allRows) {
+    Map<K, R> results = new LinkedHashMap<>();
+    for (K key : keys) {
+      R row = allRows.apply(canonicalize(key));
+      if (row == null) {
+        cacheStats.negativeHits.increment();
+      } else {
+        cacheStats.hits.increment();
+        results.put(key, row);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Adds a queried row by {@link #addToCache(java.lang.Comparable, com.aoapps.dao.Row)}, unless
+   * the table has been updated since the cache was captured before the query.
+   */
+  private void addQueried(RowCache<K, R> cache, K canonicalKey, R row) {
+    if (!isSharedCache() || sharedRowCache.get() == cache) {
+      addToCache(canonicalKey, row);
+    }
+  }
+
+  /**
+   * Adds a single object to the cache.  Called for each row found by a query on a cache miss.
    */
   protected void addToCache(K canonicalKey, R row) {
     assert Objects.equals(canonicalize(row.getKey()), canonicalKey);
-    rowCache.get().put(canonicalKey, row);
+    if (isSharedCache()) {
+      getSharedRowCache().put(canonicalKey, row);
+    } else {
+      ScopedCache<K, R> scopedCache = getScopedCache();
+      if (scopedCache.allRows == null) {
+        getRowCache(scopedCache).put(canonicalKey, row);
+      }
+    }
   }
 
   protected abstract R getNoCache(K canonicalKey) throws NoRowException, SQLException;
 
-  // TODO: getNoCacheOptional
+  /**
+   * Queries any number of rows at once, such as with {@code WHERE key = ANY(?)}.
+   *
+   * <p>This default implementation calls {@link #getNoCacheOptional(java.lang.Comparable)} for each key.</p>
+   *
+   * @param  canonicalKeys  the distinct canonical keys, never empty
+   *
+   * @return  the rows found, keyed by canonical key.  Keys that do not exist are not included.
+   */
+  protected Map<K, ? extends R> getNoCache(Collection<K> canonicalKeys) throws SQLException {
+    Map<K, R> rows = new HashMap<>(canonicalKeys.size() * 4 / 3 + 1);
+    for (K canonicalKey : canonicalKeys) {
+      Optional<R> row = getNoCacheOptional(canonicalKey);
+      if (row.isPresent()) {
+        rows.put(canonicalKey, row.get());
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Queries a single row, if exists.  Subclasses should override this to
+   * avoid the exception for rows that do not exist.
+   *
+   * <p>This default implementation calls {@link #getNoCache(java.lang.Comparable)},
+   * converting {@link NoRowException} to {@link Optional#empty()}.</p>
+   */
+  protected Optional<R> getNoCacheOptional(K canonicalKey) throws SQLException {
+    try {
+      return Optional.of(getNoCache(canonicalKey));
+    } catch (NoRowException err) {
+      return Optional.empty();
+    }
+  }
 
   protected abstract Set<? extends R> getRowsNoCache() throws SQLException;
 }
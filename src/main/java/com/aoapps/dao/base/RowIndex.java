@@ -0,0 +1,198 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import com.aoapps.dao.Table;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An immutable index of rows by canonical key.  Once constructed, an index may
+ * be safely shared between threads without any locking.
+ */
+abstract class RowIndex<K, R> {
+
+  /**
+   * The number of rows indexed by each parallel subtask.
+   */
+  private static final int INDEX_GRANULARITY = 8192;
+
+  /**
+   * Indexes a range of rows by canonical key, splitting the range in parallel.
+   */
+  private static final class IndexTask<
+      K extends Comparable<? super K>,
+      R extends Row<K, ?>
+      > extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("serial")
+    private final Table<K, ? extends R> table;
+    private final Object[] rows;
+    private final int from;
+    private final int to;
+    @SuppressWarnings("serial")
+    private final Map<K, R> index;
+    @SuppressWarnings("serial")
+    private final AtomicReference<K> duplicateKey;
+
+    private IndexTask(
+        Table<K, ? extends R> table,
+        Object[] rows,
+        int from,
+        int to,
+        Map<K, R> index,
+        AtomicReference<K> duplicateKey
+    ) {
+      this.table = table;
+      this.rows = rows;
+      this.from = from;
+      this.to = to;
+      this.index = index;
+      this.duplicateKey = duplicateKey;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= INDEX_GRANULARITY) {
+        for (int i = from; i < to && duplicateKey.get() == null; i++) {
+          @SuppressWarnings("unchecked")
+          R row = (R) rows[i];
+          if (index.putIfAbsent(table.canonicalize(row.getKey()), row) != null) {
+            duplicateKey.compareAndSet(null, row.getKey());
+          }
+        }
+      } else {
+        int mid = (from + to) >>> 1;
+        invokeAll(
+            new IndexTask<>(table, rows, from, mid, index, duplicateKey),
+            new IndexTask<>(table, rows, mid, to, index, duplicateKey)
+        );
+      }
+    }
+  }
+
+  /**
+   * Indexes rows in a hash map, optionally in parallel.
+   *
+   * @param  parallelPool  the pool to index within, or {@code null} to index on the current thread
+   *
+   * @throws  SQLException  when any canonical key is duplicated
+   */
+  static <K extends Comparable<? super K>, R extends Row<K, ?>> RowIndex<K, R> ofHash(
+      Table<K, ? extends R> table,
+      Collection<? extends R> rows,
+      ForkJoinPool parallelPool
+  ) throws SQLException {
+    Map<K, R> map;
+    if (parallelPool == null) {
+      map = new HashMap<>(rows.size() * 4 / 3 + 1);
+      for (R row : rows) {
+        if (map.put(table.canonicalize(row.getKey()), row) != null) {
+          throw new SQLException("Duplicate key: " + row.getKey());
+        }
+      }
+    } else {
+      Object[] array = rows.toArray();
+      map = new ConcurrentHashMap<>(array.length * 4 / 3 + 1);
+      AtomicReference<K> duplicateKey = new AtomicReference<>();
+      parallelPool.invoke(new IndexTask<>(table, array, 0, array.length, map, duplicateKey));
+      if (duplicateKey.get() != null) {
+        throw new SQLException("Duplicate key: " + duplicateKey.get());
+      }
+    }
+    return new Hashed<>(map);
+  }
+
+  /**
+   * Indexes rows in a {@link HashMap}, or a {@link ConcurrentHashMap} when built in parallel.
+   */
+  private static final class Hashed<K, R> extends RowIndex<K, R> {
+
+    private final Map<K, R> map;
+
+    private Hashed(Map<K, R> map) {
+      this.map = map;
+    }
+
+    @Override
+    R get(K canonicalKey) {
+      return map.get(canonicalKey);
+    }
+
+    /**
+     * Copies the map then applies the changes.
+     */
+    @Override
+    RowIndex<K, R> patch(
+        Collection<? extends K> removedCanonicalKeys,
+        Map<K, ? extends R> inserted
+    ) throws SQLException {
+      Map<K, R> patched = new HashMap<>(map);
+      for (K canonicalKey : removedCanonicalKeys) {
+        patched.remove(canonicalKey);
+      }
+      for (Map.Entry<K, ? extends R> entry : inserted.entrySet()) {
+        if (patched.put(entry.getKey(), entry.getValue()) != null) {
+          throw new SQLException("Duplicate key: " + entry.getKey());
+        }
+      }
+      return new Hashed<>(patched);
+    }
+  }
+
+  /**
+   * Gets the row for the given canonical key.
+   *
+   * @return  the row or {@code null} when not found
+   */
+  abstract R get(K canonicalKey);
+
+  /**
+   * Creates a new index with rows removed and inserted, leaving this index unchanged.
+   *
+   * <p>This default implementation returns {@code null}, so the index is rebuilt.</p>
+   *
+   * @param  removedCanonicalKeys  the canonical keys of the rows to remove
+   * @param  inserted              the rows to insert, keyed by canonical key
+   *
+   * @return  the new index or {@code null} when this index cannot be patched and must be rebuilt
+   *
+   * @throws  SQLException  when any canonical key is duplicated
+   */
+  RowIndex<K, R> patch(
+      Collection<? extends K> removedCanonicalKeys,
+      Map<K, ? extends R> inserted
+  ) throws SQLException {
+    return null;
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Table;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The secondary indexes of a single table.  Indexes are defined before rows
+ * are first loaded, then all indexes are built together in a single pass over
+ * the rows each time they are loaded.
+ */
+final class SecondaryIndexes<R> {
+
+  private static final Object[] EMPTY = new Object[0];
+
+  /**
+   * The definition of a single index.
+   */
+  private static final class Definition<R> {
+    private final Function<? super R, ?> extractor;
+    private final boolean unique;
+
+    private Definition(Function<? super R, ?> extractor, boolean unique) {
+      this.extractor = extractor;
+      this.unique = unique;
+    }
+  }
+
+  private final Table<?, ?> table;
+
+  /**
+   * Gets the indexes built from the current rows of the table, loading the rows when needed.
+   */
+  private final SharedCache.Loader<Object[]> built;
+
+  private final List<Definition<R>> definitions = new ArrayList<>();
+
+  /**
+   * Set once indexes are first built, after which no more indexes may be added.
+   */
+  private boolean frozen;
+
+  SecondaryIndexes(Table<?, ?> table, SharedCache.Loader<Object[]> built) {
+    this.table = table;
+    this.built = built;
+  }
+
+  Table<?, ?> getTable() {
+    return table;
+  }
+
+  /**
+   * Adds an index.
+   *
+   * @return  the slot of the index within the built indexes
+   *
+   * @throws  IllegalStateException  when rows have already been loaded
+   */
+  synchronized int add(Function<? super R, ?> extractor, boolean unique) throws IllegalStateException {
+    if (frozen) {
+      throw new IllegalStateException("Secondary indexes must be added before rows are loaded: " + table.getName());
+    }
+    definitions.add(new Definition<>(extractor, unique));
+    return definitions.size() - 1;
+  }
+
+  /**
+   * Builds all indexes in a single pass over the rows.  Rows with a {@code null}
+   * value are not indexed.  The rows of a non-unique index are sorted into a
+   * {@link RowArraySet} for each value.
+   *
+   * @param  rows     all rows, in any order, including rows that compare as equal
+   * @param  sortKey  computes the sort key of each row, which compare in the natural ordering of the rows,
+   *                  or {@code null} to sort by the rows directly
+   *
+   * @return  the map of each index, by slot
+   *
+   * @throws  SQLException  when any value of a unique index is duplicated
+   */
+  Object[] build(Object[] rows, Function<Object, ? extends Comparable<?>> sortKey) throws SQLException {
+    Definition<R>[] rowDefs = freeze();
+    int count = rowDefs.length;
+    if (count == 0) {
+      return EMPTY;
+    }
+    Object[] maps = new Object[count];
+    for (int i = 0; i < count; i++) {
+      maps[i] = new HashMap<>(rowDefs[i].unique ? (rows.length * 4 / 3 + 1) : 16);
+    }
+    for (Object element : rows) {
+      @SuppressWarnings("unchecked")
+      R row = (R) element;
+      for (int i = 0; i < count; i++) {
+        Definition<R> def = rowDefs[i];
+        Object value = def.extractor.apply(row);
+        if (value != null) {
+          @SuppressWarnings("unchecked")
+          Map<Object, Object> map = (Map<Object, Object>) maps[i];
+          if (def.unique) {
+            if (map.putIfAbsent(value, row) != null) {
+              throw new SQLException("Duplicate value in unique index of " + table.getName() + ": " + value);
+            }
+          } else {
+            @SuppressWarnings("unchecked")
+            List<Object> group = (List<Object>) map.computeIfAbsent(value, k -> new ArrayList<>());
+            group.add(row);
+          }
+        }
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      if (!rowDefs[i].unique) {
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> map = (Map<Object, Object>) maps[i];
+        map.replaceAll((value, group) -> newGroup((List<?>) group, sortKey));
+      }
+    }
+    return maps;
+  }
+
+  /**
+   * Creates a copy of built indexes with rows removed and inserted, leaving the built indexes
+   * unchanged.  Only the removed and inserted rows are extracted and only the groups of their
+   * values are sorted, but the map of each index is copied.
+   *
+   * @param  built         the indexes built from the rows before the change
+   * @param  removedRows   the rows to remove, including those being replaced, by identity
+   * @param  insertedRows  the rows to insert
+   * @param  sortKey       computes the sort key of each row, which compare in the natural ordering of the rows,
+   *                       or {@code null} to sort by the rows directly
+   *
+   * @return  the map of each index, by slot
+   *
+   * @throws  SQLException  when any value of a unique index is duplicated
+   */
+  Object[] patch(
+      Object[] built,
+      Set<?> removedRows,
+      Collection<?> insertedRows,
+      Function<Object, ? extends Comparable<?>> sortKey
+  ) throws SQLException {
+    Definition<R>[] rowDefs = freeze();
+    int count = rowDefs.length;
+    if (count == 0) {
+      return EMPTY;
+    }
+    Object[] maps = new Object[count];
+    for (int i = 0; i < count; i++) {
+      Definition<R> def = rowDefs[i];
+      Map<Object, Object> map = new HashMap<>((Map<?, ?>) built[i]);
+      if (def.unique) {
+        for (Object element : removedRows) {
+          @SuppressWarnings("unchecked")
+          Object value = def.extractor.apply((R) element);
+          if (value != null) {
+            map.remove(value, element);
+          }
+        }
+        for (Object element : insertedRows) {
+          @SuppressWarnings("unchecked")
+          Object value = def.extractor.apply((R) element);
+          if (value != null && map.putIfAbsent(value, element) != null) {
+            throw new SQLException("Duplicate value in unique index of " + table.getName() + ": " + value);
+          }
+        }
+      } else {
+        Map<Object, List<Object>> inserted = new HashMap<>();
+        for (Object element : removedRows) {
+          @SuppressWarnings("unchecked")
+          Object value = def.extractor.apply((R) element);
+          if (value != null) {
+            inserted.computeIfAbsent(value, k -> new ArrayList<>());
+          }
+        }
+        for (Object element : insertedRows) {
+          @SuppressWarnings("unchecked")
+          Object value = def.extractor.apply((R) element);
+          if (value != null) {
+            inserted.computeIfAbsent(value, k -> new ArrayList<>()).add(element);
+          }
+        }
+        for (Map.Entry<Object, List<Object>> entry : inserted.entrySet()) {
+          Object value = entry.getKey();
+          List<Object> group = new ArrayList<>();
+          RowArraySet<?> existing = (RowArraySet<?>) map.get(value);
+          if (existing != null) {
+            for (Object element : existing.getSortedArray()) {
+              if (!removedRows.contains(element)) {
+                group.add(element);
+              }
+            }
+          }
+          group.addAll(entry.getValue());
+          if (group.isEmpty()) {
+            map.remove(value);
+          } else {
+            map.put(value, newGroup(group, sortKey));
+          }
+        }
+      }
+      maps[i] = map;
+    }
+    return maps;
+  }
+
+  /**
+   * Gets the definitions of all indexes, after which no more indexes may be added.
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized Definition<R>[] freeze() {
+    frozen = true;
+    return (Definition<R>[]) definitions.toArray(new Definition<?>[definitions.size()]);
+  }
+
+  /**
+   * Sorts the rows of a single value of a non-unique index.
+   */
+  private static RowArraySet<?> newGroup(List<?> group, Function<Object, ? extends Comparable<?>> sortKey) {
+    Object[] groupRows = group.toArray();
+    return groupRows.length == 1
+        ? RowArraySet.ofSorted(groupRows)
+        : RowArraySet.sortInPlace(groupRows, groupRows.length, sortKey, null);
+  }
+
+  /**
+   * Gets the map of an index built from the current rows of the table.
+   */
+  Map<?, ?> getMap(int slot) throws SQLException {
+    return (Map<?, ?>) built.load()[slot];
+  }
+}
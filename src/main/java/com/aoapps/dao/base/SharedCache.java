@@ -0,0 +1,343 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.lang.exception.WrappedException;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A value shared by all threads, loaded at most once per invalidation generation.
+ * <ol>
+ *   <li>{@link #invalidate()} increments the generation; the previous value is no longer current</li>
+ *   <li>The first thread to find no current value becomes the loader</li>
+ *   <li>Concurrent threads join the single in-flight load for the same generation</li>
+ *   <li>Values are published in generation order, so a slow load never replaces a newer value</li>
+ * </ol>
+ * Reads of a current value are performed without any locking.
+ *
+ * <p>When created with a time-to-live, a value expires once loaded for longer
+ * than its time-to-live, as if {@linkplain #invalidate() invalidated}.</p>
+ *
+ * <p>When {@linkplain #refresh(java.util.concurrent.Executor) refreshed in the background},
+ * the previous value may continue to be served for a bounded time while the new
+ * value is loaded.</p>
+ */
+final class SharedCache<V> {
+
+  private static final Logger logger = Logger.getLogger(SharedCache.class.getName());
+
+  /**
+   * Marks an entry that is still current.
+   */
+  private static final long NOT_STALE = Long.MIN_VALUE;
+
+  /**
+   * Loads a new value.
+   */
+  @FunctionalInterface
+  interface Loader<V> {
+    V load() throws SQLException;
+  }
+
+  /**
+   * A value along with the generation it was loaded for.
+   */
+  private static final class Entry<V> {
+    private final long generation;
+    private final V value;
+    private final long loadedNanos;
+    private final long ttlNanos;
+
+    /**
+     * The {@link System#nanoTime()} when first invalidated or {@link #NOT_STALE} while current.
+     */
+    private volatile long staleSince = NOT_STALE;
+
+    private Entry(long generation, V value, long loadedNanos, long ttlNanos) {
+      this.generation = generation;
+      this.value = value;
+      this.loadedNanos = loadedNanos;
+      this.ttlNanos = ttlNanos;
+    }
+
+    private boolean isExpired() {
+      return ttlNanos != RowCache.NO_TTL && (System.nanoTime() - loadedNanos) >= ttlNanos;
+    }
+  }
+
+  /**
+   * A load in progress for a specific generation.
+   */
+  private static final class Load<V> {
+    private final long generation;
+    private final CompletableFuture<V> future = new CompletableFuture<>();
+
+    private Load(long generation) {
+      this.generation = generation;
+    }
+  }
+
+  private final Loader<? extends V> loader;
+  private final LongSupplier ttlNanos;
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicReference<Entry<V>> current = new AtomicReference<>();
+  private final AtomicReference<Load<V>> inFlight = new AtomicReference<>();
+
+  SharedCache(Loader<? extends V> loader) {
+    this(loader, null);
+  }
+
+  /**
+   * @param  ttlNanos  when non-null, supplies the nanoseconds each newly loaded value
+   *                   is current, or {@link RowCache#NO_TTL} to never expire
+   */
+  SharedCache(Loader<? extends V> loader, LongSupplier ttlNanos) {
+    this.loader = loader;
+    this.ttlNanos = ttlNanos;
+  }
+
+  /**
+   * Starts a new generation.  The next call to {@link #get()} will load a new
+   * value, even when a load for a previous generation is still in progress.
+   */
+  void invalidate() {
+    generation.incrementAndGet();
+    markStale(current.get());
+  }
+
+  private static void markStale(Entry<?> entry) {
+    if (entry != null && entry.staleSince == NOT_STALE) {
+      entry.staleSince = System.nanoTime();
+    }
+  }
+
+  /**
+   * Starts a new generation once an entry of the given generation has expired.
+   * Only the first thread to find the entry expired increments the generation.
+   */
+  private void expire(Entry<V> entry, long gen) {
+    if (generation.compareAndSet(gen, gen + 1)) {
+      markStale(entry);
+    }
+  }
+
+  /**
+   * Starts loading the current generation on the given executor, unless already in progress.
+   * Any failure is logged and will be retried by the next call to {@link #get()} once the
+   * previous value is no longer served.
+   */
+  void refresh(Executor executor) {
+    final long gen = generation.get();
+    Load<V> load = inFlight.get();
+    if (load == null || load.generation < gen) {
+      Load<V> newLoad = new Load<>(gen);
+      if (inFlight.compareAndSet(load, newLoad)) {
+        try {
+          executor.execute(() -> {
+            try {
+              load(newLoad);
+            } catch (SQLException | RuntimeException e) {
+              logger.log(Level.WARNING, "Background refresh failed", e);
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          newLoad.future.completeExceptionally(e);
+          inFlight.compareAndSet(newLoad, null);
+          logger.log(Level.WARNING, "Background refresh rejected", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces the current value with a value derived from it, as a new generation.
+   * Any load already in progress belongs to a previous generation, so can never
+   * replace the new value.  The new value keeps the time-to-live of the value it
+   * was derived from.
+   *
+   * @param  expected  the value the new value was derived from
+   *
+   * @return  {@code true} when replaced, or {@code false} when {@code expected} is no longer current
+   */
+  boolean replace(V expected, V value) {
+    final long gen = generation.get();
+    Entry<V> entry = current.get();
+    if (entry == null || entry.generation < gen || entry.value != expected || entry.isExpired()) {
+      return false;
+    }
+    if (!generation.compareAndSet(gen, gen + 1)) {
+      // Concurrently invalidated
+      return false;
+    }
+    Entry<V> newEntry = new Entry<>(gen + 1, value, entry.loadedNanos, entry.ttlNanos);
+    if (!current.compareAndSet(entry, newEntry)) {
+      // Another value of the previous generation was published meanwhile; the next reader will load
+      markStale(current.get());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Gets the value for the current generation without loading.
+   *
+   * @return  the current value or {@code null} when not loaded for the current generation
+   */
+  V getIfCurrent() {
+    final long gen = generation.get();
+    Entry<V> entry = current.get();
+    if (entry != null && entry.generation >= gen) {
+      if (!entry.isExpired()) {
+        return entry.value;
+      }
+      expire(entry, gen);
+    }
+    return null;
+  }
+
+  /**
+   * Gets the value that would be served by {@link #get(java.util.function.LongSupplier)}, without loading.
+   *
+   * @param  maxStalenessNanos  when non-null, the previous value is served until it
+   *                            has been stale for longer than this number of nanoseconds
+   *
+   * @return  the value or {@code null} when a load is required
+   */
+  V getIfAvailable(LongSupplier maxStalenessNanos) {
+    V value = getIfCurrent();
+    if (value == null && maxStalenessNanos != null) {
+      Entry<V> entry = current.get();
+      if (entry != null) {
+        long staleSince = entry.staleSince;
+        if (staleSince != NOT_STALE && (System.nanoTime() - staleSince) <= maxStalenessNanos.getAsLong()) {
+          value = entry.value;
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Gets the value for the current generation, loading or joining the in-flight load as needed.
+   */
+  V get() throws SQLException {
+    return get(null);
+  }
+
+  /**
+   * Gets the value for the current generation, loading or joining the in-flight load as needed.
+   *
+   * @param  maxStalenessNanos  when non-null, the previous value is served without waiting until it
+   *                            has been stale for longer than this number of nanoseconds.  Only
+   *                            consulted when the value is stale.
+   */
+  V get(LongSupplier maxStalenessNanos) throws SQLException {
+    while (true) {
+      final long gen = generation.get();
+      Entry<V> entry = current.get();
+      if (entry != null) {
+        if (entry.generation >= gen) {
+          if (!entry.isExpired()) {
+            return entry.value;
+          }
+          expire(entry, gen);
+          continue;
+        }
+        if (maxStalenessNanos != null) {
+          long staleSince = entry.staleSince;
+          if (staleSince != NOT_STALE && (System.nanoTime() - staleSince) <= maxStalenessNanos.getAsLong()) {
+            return entry.value;
+          }
+        }
+      }
+      Load<V> load = inFlight.get();
+      if (load != null && load.generation >= gen) {
+        return join(load.future);
+      }
+      Load<V> newLoad = new Load<>(gen);
+      if (inFlight.compareAndSet(load, newLoad)) {
+        return load(newLoad);
+      }
+      // Lost race to start load, try again
+    }
+  }
+
+  private V load(Load<V> load) throws SQLException {
+    try {
+      V value;
+      // Another thread may have published this generation between our read and starting the load
+      Entry<V> entry = current.get();
+      if (entry != null && entry.generation >= load.generation) {
+        value = entry.value;
+      } else {
+        value = loader.load();
+        Entry<V> newEntry = new Entry<>(
+            load.generation,
+            value,
+            System.nanoTime(),
+            ttlNanos == null ? RowCache.NO_TTL : ttlNanos.getAsLong()
+        );
+        current.accumulateAndGet(newEntry, (prev, next) -> prev == null || next.generation >= prev.generation ? next : prev);
+      }
+      load.future.complete(value);
+      return value;
+    } catch (Throwable t) {
+      load.future.completeExceptionally(t);
+      throw t;
+    } finally {
+      inFlight.compareAndSet(load, null);
+    }
+  }
+
+  /**
+   * Waits for a load started by another thread.
+   */
+  static <V> V join(CompletableFuture<V> future) throws SQLException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        SQLException sqlErr = (SQLException) cause;
+        throw new SQLException(sqlErr.getMessage(), sqlErr.getSQLState(), sqlErr.getErrorCode(), sqlErr);
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new WrappedException(cause);
+    }
+  }
+}
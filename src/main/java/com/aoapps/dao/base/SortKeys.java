@@ -0,0 +1,101 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import java.util.function.Function;
+
+/**
+ * Computes sort keys for rows, which compare in the same order as rows sorted
+ * by key as in {@link AbstractRow#compareTo(com.aoapps.dao.base.AbstractRow)}
+ * and {@link AbstractTuple#compareTo(com.aoapps.dao.base.AbstractTuple)}.
+ */
+final class SortKeys {
+
+  /** Make no instances. */
+  private SortKeys() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Gets the function computing the sort key of each row.
+   *
+   * @param  keyClass       the class of the keys of the rows
+   * @param  stringSortKey  computes the sort key of a String, in the same order as the model comparator
+   *
+   * @return  the function or {@code null} when keys have no String comparisons to precompute
+   */
+  static Function<Object, Comparable<?>> forRows(
+      Class<?> keyClass,
+      Function<? super String, ? extends Comparable<?>> stringSortKey
+  ) {
+    if (keyClass == String.class) {
+      return row -> stringSortKey.apply(((Row<?, ?>) row).getKey().toString());
+    }
+    if (AbstractTuple.class.isAssignableFrom(keyClass)) {
+      return row -> new ColumnsSortKey((AbstractTuple<?>) ((Row<?, ?>) row).getKey(), stringSortKey);
+    }
+    return null;
+  }
+
+  /**
+   * The sort key of a tuple, with the sort key of each String column.
+   */
+  private static final class ColumnsSortKey implements Comparable<ColumnsSortKey> {
+
+    private final Comparable<?>[] columns;
+
+    private ColumnsSortKey(AbstractTuple<?> tuple, Function<? super String, ? extends Comparable<?>> stringSortKey) {
+      Comparable<?>[] sortKeys = new Comparable<?>[tuple.getArity()];
+      for (int i = 0; i < sortKeys.length; i++) {
+        Comparable<?> column = tuple.getColumn(i);
+        sortKeys[i] = (column != null && column.getClass() == String.class) ? stringSortKey.apply(column.toString()) : column;
+      }
+      this.columns = sortKeys;
+    }
+
+    @Override
+    public int compareTo(ColumnsSortKey o) {
+      Comparable<?>[] columns1 = columns;
+      Comparable<?>[] columns2 = o.columns;
+      int minLen = Math.min(columns1.length, columns2.length);
+      for (int i = 0; i < minLen; i++) {
+        @SuppressWarnings("unchecked")
+        Comparable<Object> column1 = (Comparable<Object>) columns1[i];
+        Comparable<?> column2 = columns2[i];
+        int diff;
+        // Sort nulls as larger than any non-null
+        if (column1 == null) {
+          diff = column2 == null ? 0 : 1;
+        } else {
+          diff = column2 == null ? -1 : column1.compareTo(column2);
+        }
+        if (diff != 0) {
+          return diff;
+        }
+      }
+      return Integer.compare(columns1.length, columns2.length);
+    }
+  }
+}
@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2011, 2012, 2013, 2015, 2016, 2020, 2021, 2022, 2023, 2024  AO Industries, Inc.
+ * Copyright (C) 2011, 2012, 2013, 2015, 2016, 2020, 2021, 2022, 2023, 2024, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -27,49 +27,147 @@ import com.aoapps.dao.Model;
 import com.aoapps.dao.Row;
 import com.aoapps.dbc.NoRowException;
 import java.sql.SQLException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.function.Function;
 
 /**
  * Caches results by querying the entire table upon first use.  The cache is
- * per-request and per-user.
+ * per-request and per-user, within the {@linkplain CacheScope current scope}.
  * <ol>
  *   <li>All rows are loaded and stored unsorted</li>
  *   <li>allRowsLoaded is called, given unsorted rows</li>
  *   <li>Map is built upon first call to get(K)</li>
  *   <li>Rows are sorted upon first call to getRows</li>
+ *   <li>{@linkplain #addUniqueIndex(java.util.function.Function) Secondary indexes} are built from all rows upon first query</li>
  * </ol>
+ * When {@linkplain #isSharedCache() shared}, a single snapshot of all rows is
+ * shared by all threads instead.  It is loaded at most once per
+ * {@link #tableUpdated()}, which is seen by all threads.
  */
 public abstract class TableCacheTable<
     K extends Comparable<? super K>,
     R extends Row<K, ?>
     > extends AbstractTable<K, R> {
 
-  protected final ThreadLocal<Set<? extends R>> unsortedRowsCache = new ThreadLocal<>();
+  /**
+   * The caches of a single {@link CacheScope}.
+   */
+  private static final class ScopedCache<K, R> {
+    private Set<? extends R> unsortedRows;
+    private RowArraySet<R> sortedRows;
+    private RowArrayMap<K, R> sortedRowMap;
+    private RowIndex<K, R> rowIndex;
+    private Object[] secondaryIndexes;
+  }
 
-  private final ThreadLocal<SortedSet<? extends R>> sortedRowsCache = new ThreadLocal<>();
+  /**
+   * The unsorted rows when all rows are cached, or {@code null} when not loaded.
+   *
+   * @deprecated  Rows are now cached within the {@linkplain CacheScope current scope}, or for all threads when
+   *              {@linkplain #isSharedCache() shared}, instead of per thread.  This is only a view of those caches,
+   *              on which only {@code null} may be set.  Use {@link #getUnsortedRows()} or {@link #clearCaches()} instead.
+   */
+  @Deprecated(forRemoval = true)
+  protected final ThreadLocal<Set<? extends R>> unsortedRowsCache = new UnsortedRowsCache<>(
+      this::getCachedUnsortedRows,
+      this::clearCaches0
+  );
 
-  private final ThreadLocal<Boolean> rowCachedLoaded = ThreadLocal.withInitial(() -> false);
+  /**
+   * The snapshot of all rows when {@linkplain #isSharedCache() shared}.
+   */
+  private final SharedCache<TableSnapshot<K, R>> sharedSnapshot = new SharedCache<>(this::loadSharedSnapshot);
 
-  private final ThreadLocal<Map<K, R>> rowCache = ThreadLocal.withInitial(HashMap::new);
+  /**
+   * The secondary indexes, built into the shared snapshot or each scoped cache.
+   */
+  private final SecondaryIndexes<R> secondaryIndexes = new SecondaryIndexes<>(this, this::getSecondaryIndexes);
 
   protected TableCacheTable(Class<K> keyClass, Class<R> rowClass, Model model) {
     super(keyClass, rowClass, model);
   }
 
+  /**
+   * Is the cache shared by all threads?  When shared, all rows are loaded once
+   * per {@link #tableUpdated()} into a snapshot used by all threads, instead
+   * of being loaded separately by each {@link CacheScope}.
+   *
+   * <p>Must consistently return the same value for the lifetime of this table.</p>
+   *
+   * <p>This default implementation returns {@code false}, caching per-scope.</p>
+   */
+  protected boolean isSharedCache() {
+    return false;
+  }
+
+  /**
+   * Adds a unique index on a value of each row, such as a unique column.
+   * The index is built along with the cached rows, and rows with a {@code null}
+   * value are not indexed.  Must be called before rows are first loaded,
+   * typically while initializing a field of the subclass.
+   *
+   * @param  extractor  gets the value of a row, which must have consistent
+   *                    {@link Object#equals(java.lang.Object)} and {@link Object#hashCode()}
+   *
+   * @throws  IllegalStateException  when rows have already been loaded
+   */
+  protected <C> UniqueIndex<C, R> addUniqueIndex(Function<? super R, ? extends C> extractor) throws IllegalStateException {
+    return new UniqueIndex<>(secondaryIndexes, secondaryIndexes.add(extractor, true));
+  }
+
+  /**
+   * Adds a non-unique index on a value of each row, such as a foreign key.
+   * The index is built along with the cached rows, and rows with a {@code null}
+   * value are not indexed.  Must be called before rows are first loaded,
+   * typically while initializing a field of the subclass.
+   *
+   * @param  extractor  gets the value of a row, which must have consistent
+   *                    {@link Object#equals(java.lang.Object)} and {@link Object#hashCode()}
+   *
+   * @throws  IllegalStateException  when rows have already been loaded
+   */
+  protected <C> NonUniqueIndex<C, R> addNonUniqueIndex(Function<? super R, ? extends C> extractor) throws IllegalStateException {
+    return new NonUniqueIndex<>(secondaryIndexes, secondaryIndexes.add(extractor, false));
+  }
+
+  private TableSnapshot<K, R> loadSharedSnapshot() throws SQLException {
+    return TableSnapshot.<K, R>load(
+        this,
+        rows -> getRowsNoCache().forEach(rows),
+        0,
+        size -> null,
+        secondaryIndexes,
+        this::allRowsLoaded
+    );
+  }
+
+  private ScopedCache<K, R> getScopedCache() {
+    return CacheScope.getCurrent().getCache(this, ScopedCache::new);
+  }
+
+  /**
+   * Gets all rows when already loaded in the current scope or {@linkplain #isSharedCache() shared}.
+   *
+   * @return  the rows or {@code null} when not loaded
+   */
+  protected Set<? extends R> getCachedUnsortedRows() {
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      return snapshot == null ? null : snapshot.getUnsortedRows();
+    }
+    ScopedCache<K, R> cache = CacheScope.getCurrentCacheIfExists(this);
+    return cache == null ? null : cache.unsortedRows;
+  }
+
   private void clearCaches0() {
-    unsortedRowsCache.remove();
-    sortedRowsCache.remove();
-    rowCachedLoaded.remove();
-    rowCache.remove();
+    CacheScope.removeCurrentCache(this);
   }
 
   /**
-   * Clears all caches for the current thread.
+   * Clears all caches for the current scope.
+   * There are no per-scope caches when {@linkplain #isSharedCache() shared}.
    */
   @Override
   public void clearCaches() {
@@ -78,21 +176,27 @@ public abstract class TableCacheTable<
   }
 
   /**
-   * When the table is updated, all caches are cleared for the current thread.
+   * When the table is updated, all caches are cleared for the current scope.
+   * When {@linkplain #isSharedCache() shared}, the shared snapshot is invalidated for all threads.
    */
   @Override
   public void tableUpdated() {
-    super.tableUpdated();
     clearCaches0();
+    sharedSnapshot.invalidate();
+    super.tableUpdated();
   }
 
   @Override
   public Set<? extends R> getUnsortedRows() throws SQLException {
-    Set<? extends R> rows = unsortedRowsCache.get();
+    if (isSharedCache()) {
+      return sharedSnapshot.get().getUnsortedRows();
+    }
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    Set<? extends R> rows = scopedCache.unsortedRows;
     if (rows == null) {
-      rows = Collections.unmodifiableSet(getRowsNoCache());
+      rows = loadRows(this::getRowsNoCache);
       allRowsLoaded(rows);
-      unsortedRowsCache.set(rows);
+      scopedCache.unsortedRows = rows;
     }
     return rows;
   }
@@ -110,35 +214,112 @@ public abstract class TableCacheTable<
 
   @Override
   public SortedSet<? extends R> getRows() throws SQLException {
-    SortedSet<? extends R> rows = sortedRowsCache.get();
+    if (isSharedCache()) {
+      return sharedSnapshot.get().getRows();
+    }
+    return getScopedRows();
+  }
+
+  private RowArraySet<R> getScopedRows() throws SQLException {
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    RowArraySet<R> rows = scopedCache.sortedRows;
     if (rows == null) {
-      rows = Collections.unmodifiableSortedSet(new TreeSet<>(getUnsortedRows()));
-      sortedRowsCache.set(rows);
+      rows = RowArraySet.of(getUnsortedRows(), getRowSortKey(), null);
+      scopedCache.sortedRows = rows;
     }
     return rows;
   }
 
   @Override
-  public R get(K key) throws NoRowException, SQLException {
-    Map<K, R> cache = rowCache.get();
-    if (!rowCachedLoaded.get()) {
-      // Load all rows in a single query
-      cache.clear();
-      for (R row : getUnsortedRows()) {
-        if (cache.put(canonicalize(row.getKey()), row) != null) {
-          throw new SQLException("Duplicate key: " + row.getKey());
-        }
-      }
-      rowCachedLoaded.set(true);
+  RowArrayMap<K, R> getSortedRowMap() throws SQLException {
+    if (isSharedCache()) {
+      return sharedSnapshot.get().getSortedRowMap();
+    }
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    RowArrayMap<K, R> sortedRowMap = scopedCache.sortedRowMap;
+    if (sortedRowMap == null) {
+      sortedRowMap = RowArrayMap.of(getRows(), getKeyComparator());
+      scopedCache.sortedRowMap = sortedRowMap;
+    }
+    return sortedRowMap;
+  }
+
+  @Override
+  boolean isCacheScoped() {
+    return !isSharedCache();
+  }
+
+  @Override
+  Optional<R> getCachedOptional(K canonicalKey) {
+    RowIndex<K, R> index;
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      index = snapshot == null ? null : snapshot.getIndex();
+    } else {
+      ScopedCache<K, R> scopedCache = CacheScope.getCurrentCacheIfExists(this);
+      index = scopedCache == null ? null : scopedCache.rowIndex;
     }
-    R row = cache.get(canonicalize(key));
+    return index == null ? null : Optional.ofNullable(index.get(canonicalKey));
+  }
+
+  @Override
+  SortedSet<? extends R> getCachedRows() {
+    if (isSharedCache()) {
+      TableSnapshot<K, R> snapshot = sharedSnapshot.getIfCurrent();
+      return snapshot == null ? null : snapshot.getRows();
+    }
+    ScopedCache<K, R> scopedCache = CacheScope.getCurrentCacheIfExists(this);
+    return scopedCache == null ? null : scopedCache.sortedRows;
+  }
+
+  @Override
+  public R get(K key) throws NoRowException, SQLException {
+    R row = getIfExists(key);
     if (row == null) {
       throw new NoRowException(getName() + " not found: " + key);
     }
     return row;
   }
 
-  // TODO: getOptional
+  @Override
+  public Optional<R> getOptional(K key) throws SQLException {
+    return Optional.ofNullable(getIfExists(key));
+  }
+
+  /**
+   * Gets the row for the given key.
+   *
+   * @return  the row or {@code null} when not found
+   */
+  private R getIfExists(K key) throws SQLException {
+    if (isSharedCache()) {
+      return countLookup(sharedSnapshot.get().get(canonicalize(key)));
+    }
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    RowIndex<K, R> index = scopedCache.rowIndex;
+    if (index == null) {
+      // Load all rows in a single query
+      index = newRowIndex(getUnsortedRows(), null);
+      scopedCache.rowIndex = index;
+    }
+    return countLookup(index.get(canonicalize(key)));
+  }
+
+  /**
+   * Gets the secondary indexes built from all rows, loading the rows when needed.
+   */
+  private Object[] getSecondaryIndexes() throws SQLException {
+    if (isSharedCache()) {
+      return sharedSnapshot.get().getSecondaryIndexes();
+    }
+    ScopedCache<K, R> scopedCache = getScopedCache();
+    Object[] built = scopedCache.secondaryIndexes;
+    if (built == null) {
+      built = secondaryIndexes.build(getUnsortedRows().toArray(), getRowSortKey());
+      scopedCache.secondaryIndexes = built;
+    }
+    return built;
+  }
 
   protected abstract Set<? extends R> getRowsNoCache() throws SQLException;
 }
@@ -0,0 +1,346 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import java.sql.SQLException;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * An immutable view of all rows of a table, sorted and indexed by canonical key.
+ * Once constructed, a snapshot may be safely shared between threads without
+ * any locking.
+ */
+final class TableSnapshot<
+    K extends Comparable<? super K>,
+    R extends Row<K, ?>
+    > {
+
+  private final Set<? extends R> unsortedRows;
+  private final RowArraySet<R> sortedRows;
+  private final RowArrayMap<K, R> sortedRowMap;
+  private final RowIndex<K, R> index;
+  private final Object[] secondaryIndexes;
+
+  /**
+   * Adds all rows to the given consumer.
+   */
+  @FunctionalInterface
+  interface RowsQuery<R> {
+    void getRows(Consumer<? super R> rows) throws SQLException;
+  }
+
+  /**
+   * Called with the unsorted rows of a newly loaded snapshot.
+   */
+  @FunctionalInterface
+  interface AllRowsLoaded<R> {
+    void allRowsLoaded(Set<? extends R> rows) throws SQLException;
+  }
+
+  /**
+   * Loads all rows into a new snapshot.  The query is counted and timed by the table,
+   * the rows are indexed and sorted by a {@link Builder}, then {@code allRowsLoaded}
+   * is called with the unsorted rows of the new snapshot.
+   *
+   * @param  expectedSize      the expected number of rows, used to presize the array
+   * @param  parallelPool      gets the pool to sort and index within for the number of rows loaded,
+   *                           or {@code null} to sort and index on the current thread
+   * @param  secondaryIndexes  the secondary indexes to build, or {@code null} for none
+   *
+   * @throws  SQLException  when the query fails, or when any canonical key or value of a unique index is duplicated
+   */
+  static <
+      K extends Comparable<? super K>,
+      R extends Row<K, ?>
+      > TableSnapshot<K, R> load(
+      AbstractTable<K, R> table,
+      RowsQuery<R> query,
+      int expectedSize,
+      IntFunction<? extends ForkJoinPool> parallelPool,
+      SecondaryIndexes<R> secondaryIndexes,
+      AllRowsLoaded<R> allRowsLoaded
+  ) throws SQLException {
+    Builder<K, R> builder = table.timeLoad(
+        () -> {
+          Builder<K, R> rows = new Builder<>(expectedSize);
+          query.getRows(rows);
+          return rows;
+        },
+        Builder::size
+    );
+    TableSnapshot<K, R> snapshot = builder.build(table, parallelPool.apply(builder.size()), secondaryIndexes);
+    allRowsLoaded.allRowsLoaded(snapshot.getUnsortedRows());
+    return snapshot;
+  }
+
+  /**
+   * An unmodifiable set of all rows, backed by the map of rows sorted by key.
+   * Unlike the sorted rows, includes rows that compare as equal, and
+   * {@link #contains(java.lang.Object)} uses {@link Object#equals(java.lang.Object)},
+   * finding the row by the key index.
+   */
+  private static final class AllRows<
+      K extends Comparable<? super K>,
+      R extends Row<K, ?>
+      > extends AbstractSet<R> {
+
+    private final AbstractTable<K, R> table;
+    private final RowArrayMap<K, R> sortedRowMap;
+    private final RowIndex<K, R> index;
+
+    private AllRows(AbstractTable<K, R> table, RowArrayMap<K, R> sortedRowMap, RowIndex<K, R> index) {
+      this.table = table;
+      this.sortedRowMap = sortedRowMap;
+      this.index = index;
+    }
+
+    @Override
+    public int size() {
+      return sortedRowMap.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (!table.getRowClass().isInstance(o)) {
+        return false;
+      }
+      R row = index.get(table.canonicalize(table.getRowClass().cast(o).getKey()));
+      return row != null && row.equals(o);
+    }
+
+    @Override
+    public Iterator<R> iterator() {
+      return Collections.unmodifiableCollection(sortedRowMap.values()).iterator();
+    }
+  }
+
+  /**
+   * Accumulates rows as they are loaded, then builds a snapshot directly from the
+   * single array of rows.  Compared to loading a set of all rows, there is no
+   * intermediate collection: the array is indexed, then sorted in place, and is
+   * shared by the sorted rows and the map sorted by key when possible.
+   *
+   * <p>A builder is not thread-safe and may be used for only one snapshot.</p>
+   */
+  static final class Builder<
+      K extends Comparable<? super K>,
+      R extends Row<K, ?>
+      > implements Consumer<R> {
+
+    private Object[] rows;
+    private int size;
+    private boolean built;
+
+    /**
+     * @param  expectedSize  the expected number of rows, used to presize the array
+     */
+    Builder(int expectedSize) {
+      rows = new Object[Math.max(expectedSize, 16)];
+    }
+
+    /**
+     * Adds a row.
+     *
+     * @throws  NullPointerException   when the row is {@code null}
+     * @throws  IllegalStateException  when the snapshot has already been built
+     */
+    @Override
+    public void accept(R row) throws NullPointerException, IllegalStateException {
+      Objects.requireNonNull(row);
+      if (built) {
+        throw new IllegalStateException("Snapshot already built");
+      }
+      if (size == rows.length) {
+        rows = Arrays.copyOf(rows, rows.length + (rows.length >> 1));
+      }
+      rows[size++] = row;
+    }
+
+    /**
+     * Gets the number of rows added.
+     */
+    int size() {
+      return size;
+    }
+
+    /**
+     * Indexes then sorts all rows, optionally in parallel, along with any secondary indexes.
+     *
+     * @param  parallelPool      the pool to sort and index within, or {@code null} to sort and index on the current thread
+     * @param  secondaryIndexes  the secondary indexes to build, or {@code null} for none
+     *
+     * @throws  SQLException  when any canonical key or value of a unique index is duplicated
+     */
+    TableSnapshot<K, R> build(
+        AbstractTable<K, R> table,
+        ForkJoinPool parallelPool,
+        SecondaryIndexes<R> secondaryIndexes
+    ) throws SQLException {
+      if (built) {
+        throw new IllegalStateException("Snapshot already built");
+      }
+      built = true;
+      Object[] all = size == rows.length ? rows : Arrays.copyOf(rows, size);
+      rows = null;
+      @SuppressWarnings("unchecked")
+      List<R> loaded = (List<R>) (List<?>) Arrays.asList(all);
+      // Indexes all rows, not only the distinct sorted rows, to detect duplicate keys
+      RowIndex<K, R> index = table.newRowIndex(loaded, parallelPool);
+      RowArraySet<R> sorted = RowArraySet.sortInPlace(all, all.length, table.getRowSortKey(), parallelPool);
+      RowArrayMap<K, R> sortedRowMap = RowArrayMap.<K, R>of(all, table.getKeyComparator());
+      return new TableSnapshot<>(
+          new AllRows<>(table, sortedRowMap, index),
+          sorted,
+          sortedRowMap,
+          index,
+          secondaryIndexes == null ? null : secondaryIndexes.build(all, table.getRowSortKey())
+      );
+    }
+  }
+
+  private TableSnapshot(
+      Set<? extends R> unsortedRows,
+      RowArraySet<R> sortedRows,
+      RowArrayMap<K, R> sortedRowMap,
+      RowIndex<K, R> index,
+      Object[] secondaryIndexes
+  ) {
+    this.unsortedRows = unsortedRows;
+    this.sortedRows = sortedRows;
+    this.sortedRowMap = sortedRowMap;
+    this.index = index;
+    this.secondaryIndexes = secondaryIndexes;
+  }
+
+  /**
+   * Creates a new snapshot with rows removed and inserted, leaving this snapshot unchanged.
+   * The rows are merged into both the sorted rows and the map sorted by key, and the key
+   * index is patched when possible, otherwise rebuilt.  Secondary indexes are patched
+   * with only the changed rows.  The arrays and hash tables are copied, so the cost
+   * remains proportional to the number of rows, but without querying, sorting, or
+   * extracting index values from the unchanged rows.
+   *
+   * @param  removedCanonicalKeys  the canonical keys of the rows to remove, including those being replaced
+   * @param  inserted              the rows to insert, keyed by canonical key
+   * @param  secondaryIndexes      the secondary indexes to patch, or {@code null} for none
+   *
+   * @throws  SQLException  when any canonical key or value of a unique index is duplicated
+   */
+  TableSnapshot<K, R> patch(
+      AbstractTable<K, R> table,
+      Collection<? extends K> removedCanonicalKeys,
+      Map<K, ? extends R> inserted,
+      SecondaryIndexes<R> secondaryIndexes
+  ) throws SQLException {
+    List<K> removedKeys = new ArrayList<>(removedCanonicalKeys.size());
+    Set<Object> removedRows = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (K canonicalKey : removedCanonicalKeys) {
+      R row = index.get(canonicalKey);
+      if (row != null) {
+        removedKeys.add(row.getKey());
+        removedRows.add(row);
+      }
+    }
+    Object[] insertedRows = inserted.values().toArray();
+    Arrays.sort(insertedRows, RowArrayMap.<K, R>keyOrder(table.getKeyComparator()));
+    Object[] insertedKeys = new Object[insertedRows.length];
+    for (int i = 0; i < insertedRows.length; i++) {
+      @SuppressWarnings("unchecked")
+      R row = (R) insertedRows[i];
+      insertedKeys[i] = row.getKey();
+    }
+    RowArrayMap<K, R> newSortedRowMap = sortedRowMap.patch(removedKeys, insertedKeys, insertedRows);
+    // The natural ordering of rows may differ from key order, so rows are merged separately
+    RowArraySet<R> newSortedRows = sortedRows.patch(removedRows, insertedRows, table.getRowSortKey());
+    RowIndex<K, R> newIndex = index.patch(removedCanonicalKeys, inserted);
+    if (newIndex == null) {
+      // Indexes all rows, not only the distinct sorted rows, to detect duplicate keys
+      newIndex = table.newRowIndex(newSortedRowMap.values(), null);
+    }
+    Object[] newSecondaryIndexes;
+    if (secondaryIndexes == null) {
+      newSecondaryIndexes = null;
+    } else if (this.secondaryIndexes == null) {
+      newSecondaryIndexes = secondaryIndexes.build(newSortedRowMap.values().toArray(), table.getRowSortKey());
+    } else {
+      newSecondaryIndexes = secondaryIndexes.patch(this.secondaryIndexes, removedRows, inserted.values(), table.getRowSortKey());
+    }
+    return new TableSnapshot<>(
+        new AllRows<>(table, newSortedRowMap, newIndex),
+        newSortedRows,
+        newSortedRowMap,
+        newIndex,
+        newSecondaryIndexes
+    );
+  }
+
+  Set<? extends R> getUnsortedRows() {
+    return unsortedRows;
+  }
+
+  SortedSet<? extends R> getRows() {
+    return sortedRows;
+  }
+
+  RowArrayMap<K, R> getSortedRowMap() {
+    return sortedRowMap;
+  }
+
+  RowIndex<K, R> getIndex() {
+    return index;
+  }
+
+  /**
+   * Gets the secondary indexes built with this snapshot.
+   *
+   * @see  SecondaryIndexes#build(java.lang.Object[])
+   */
+  Object[] getSecondaryIndexes() {
+    return secondaryIndexes;
+  }
+
+  /**
+   * Gets the row for the given canonical key.
+   *
+   * @return  the row or {@code null} when not found
+   */
+  R get(K canonicalKey) {
+    return index.get(canonicalKey);
+  }
+}
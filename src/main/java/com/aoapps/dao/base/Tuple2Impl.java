@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2013, 2015, 2016, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2013, 2015, 2016, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -60,6 +60,23 @@ public class Tuple2Impl<
     };
   }
 
+  @Override
+  protected int getArity() {
+    return 2;
+  }
+
+  @Override
+  protected Comparable<?> getColumn(int index) throws IndexOutOfBoundsException {
+    switch (index) {
+      case 0:
+        return column1;
+      case 1:
+        return column2;
+      default:
+        throw new IndexOutOfBoundsException(Integer.toString(index));
+    }
+  }
+
   @Override
   public C1 getColumn1() {
     return column1;
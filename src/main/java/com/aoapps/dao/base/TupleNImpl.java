@@ -1,6 +1,6 @@
 /*
  * ao-dao-base - Simple data access objects framework base for implementations.
- * Copyright (C) 2013, 2015, 2016, 2020, 2021, 2022  AO Industries, Inc.
+ * Copyright (C) 2013, 2015, 2016, 2020, 2021, 2022, 2026  AO Industries, Inc.
  *     support@aoindustries.com
  *     7262 Bull Pen Cir
  *     Mobile, AL 36695
@@ -57,4 +57,14 @@ public class TupleNImpl<
   public C[] getColumns() {
     return Arrays.copyOf(columns, columns.length); // Defensive copy
   }
+
+  @Override
+  protected int getArity() {
+    return columns.length;
+  }
+
+  @Override
+  protected C getColumn(int index) throws IndexOutOfBoundsException {
+    return columns[index];
+  }
 }
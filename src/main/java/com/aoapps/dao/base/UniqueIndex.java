@@ -0,0 +1,76 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import com.aoapps.dao.Row;
+import com.aoapps.dbc.NoRowException;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * An index of all rows of a cached table by a value that is unique to each row,
+ * such as a unique column.  Rows with a {@code null} value are not indexed.
+ * The index is built along with the cached rows and discarded when the table
+ * is updated.
+ *
+ * @see  GlobalCacheTable#addUniqueIndex(java.util.function.Function)
+ * @see  TableCacheTable#addUniqueIndex(java.util.function.Function)
+ */
+public final class UniqueIndex<C, R extends Row<?, ?>> {
+
+  private final SecondaryIndexes<R> indexes;
+  private final int slot;
+
+  UniqueIndex(SecondaryIndexes<R> indexes, int slot) {
+    this.indexes = indexes;
+    this.slot = slot;
+  }
+
+  /**
+   * Gets the row having the given value.
+   *
+   * @throws NoRowException if not found
+   */
+  public R get(C value) throws NoRowException, SQLException {
+    R row = getIfExists(value);
+    if (row == null) {
+      throw new NoRowException(indexes.getTable().getName() + " not found: " + value);
+    }
+    return row;
+  }
+
+  /**
+   * Gets the row having the given value.
+   *
+   * @return  the row or {@link Optional#empty()} when not found
+   */
+  public Optional<R> getOptional(C value) throws SQLException {
+    return Optional.ofNullable(getIfExists(value));
+  }
+
+  @SuppressWarnings("unchecked")
+  private R getIfExists(C value) throws SQLException {
+    return (R) indexes.getMap(slot).get(value);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * ao-dao-base - Simple data access objects framework base for implementations.
+ * Copyright (C) 2026  AO Industries, Inc.
+ *     support@aoindustries.com
+ *     7262 Bull Pen Cir
+ *     Mobile, AL 36695
+ *
+ * This file is part of ao-dao-base.
+ *
+ * ao-dao-base is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ao-dao-base is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ao-dao-base.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.aoapps.dao.base;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The formerly per-thread cache of unsorted rows, kept for compatibility as a view of the caches
+ * of {@link RowCacheTable} and {@link TableCacheTable}.  Rows are only cached by loading them,
+ * so only {@code null} may be set, which clears the caches of the current scope.
+ */
+final class UnsortedRowsCache<R> extends ThreadLocal<Set<? extends R>> {
+
+  private final Supplier<? extends Set<? extends R>> loadedRows;
+  private final Runnable clearCaches;
+
+  /**
+   * @param  loadedRows   gets the unsorted rows when all rows are cached, or {@code null} when not loaded
+   * @param  clearCaches  clears the caches of the current scope
+   */
+  UnsortedRowsCache(Supplier<? extends Set<? extends R>> loadedRows, Runnable clearCaches) {
+    this.loadedRows = loadedRows;
+    this.clearCaches = clearCaches;
+  }
+
+  @Override
+  public Set<? extends R> get() {
+    return loadedRows.get();
+  }
+
+  /**
+   * @throws  UnsupportedOperationException  when the rows are not {@code null}
+   */
+  @Override
+  public void set(Set<? extends R> rows) throws UnsupportedOperationException {
+    if (rows != null) {
+      throw new UnsupportedOperationException("Rows are only cached by loading all rows");
+    }
+    remove();
+  }
+
+  @Override
+  public void remove() {
+    clearCaches.run();
+  }
+}